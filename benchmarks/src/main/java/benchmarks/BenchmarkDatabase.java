@@ -0,0 +1,92 @@
+package benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import db.DB;
+import db.DbException;
+import db.SchemaMigrator;
+
+public class BenchmarkDatabase {
+
+	private static final AtomicInteger DATABASES = new AtomicInteger();
+
+	// names are spread so that the insertion order is not the Name order
+	private static final String SEED_DEPARTMENTS = "INSERT INTO department (Id, Name) "
+			+ "SELECT X, CONCAT('Department ', X) FROM SYSTEM_RANGE(1, ?)";
+	private static final String SEED_SELLERS = "INSERT INTO seller (Name, Email, BirthDate, BaseSalary, DepartmentId) "
+			+ "SELECT CONCAT('Seller ', MOD(X * 7919, ?), ' ', X), CONCAT('seller', X, '@example.com'), "
+			+ "DATEADD('DAY', -MOD(X, 20000), TIMESTAMP '2000-01-01 00:00:00'), 1000 + MOD(X, 5000), "
+			+ "1 + MOD(X, ?) FROM SYSTEM_RANGE(1, ?)";
+
+	// points DB at a fresh in-memory database seeded with the given number of rows
+	public static void start(int sellers, int departments) {
+		Properties props = new Properties();
+		props.setProperty("dburl", "jdbc:h2:mem:bench" + DATABASES.incrementAndGet()
+				+ ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1");
+		props.setProperty("user", "sa");
+		props.setProperty("password", "");
+		props.setProperty("pool.minSize", "1");
+		props.setProperty("migration.enabled", "false");
+		props.setProperty("migration.checkIndexes", "false");
+		DB.setProperties(props);
+
+		Connection conn = DB.getConnection();
+		PreparedStatement ps = null;
+		try {
+			createSchema(conn);
+
+			ps = conn.prepareStatement(SEED_DEPARTMENTS);
+			ps.setInt(1, departments);
+			ps.executeUpdate();
+			DB.closeStatement(ps);
+
+			ps = conn.prepareStatement(SEED_SELLERS);
+			ps.setInt(1, sellers);
+			ps.setInt(2, departments);
+			ps.setInt(3, sellers);
+			ps.executeUpdate();
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeStatement(ps);
+			DB.closeConnection(conn);
+		}
+	}
+
+	// the application's own migrations, so the benchmark tables cannot drift from db/sql
+	private static void createSchema(Connection conn) throws SQLException {
+		Statement st = null;
+		try {
+			st = conn.createStatement();
+			for (String sql : SchemaMigrator.allStatements()) {
+				// H2 triggers are Java classes, the deleted_row tombstones are not benchmarked
+				if (!sql.regionMatches(true, 0, "CREATE TRIGGER", 0, 14)) {
+					st.execute(sql);
+				}
+			}
+		} finally {
+			DB.closeStatement(st);
+		}
+	}
+
+	public static void stop() {
+		Connection conn = DB.getConnection();
+		Statement st = null;
+		try {
+			st = conn.createStatement();
+			st.execute("DROP ALL OBJECTS");
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
+			DB.closeConnection();
+		}
+	}
+
+}
@@ -0,0 +1,110 @@
+package benchmarks;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import gui.util.CellFormats;
+import model.entities.Department;
+import model.entities.Seller;
+
+// one op is one frame of a scrolling seller table: the visible rows move down and their cells format again,
+// run with -prof gc and read gc.alloc.rate.norm as bytes per frame
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CellRenderingBenchmark {
+
+	private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+	@Param({ "100000" })
+	private int sellers;
+
+	@Param({ "40" })
+	private int visibleRows;
+
+	// rows a mouse wheel notch moves
+	@Param({ "3" })
+	private int scrollStep;
+
+	private List<Seller> rows;
+	private int top;
+
+	// what the cells did before: a SimpleDateFormat per date cell and the format string built per update
+	private SimpleDateFormat[] dateCells;
+	private int decimalPlaces = 2;
+
+	private Function<Date, String> dateText;
+	private Function<Double, String> salaryText;
+
+	@Setup
+	public void setUp() {
+		rows = new ArrayList<>(sellers);
+		List<Department> departments = new ArrayList<>();
+		for (int i = 1; i <= 10; i++) {
+			departments.add(new Department(i, "Department " + i));
+		}
+		long base = new Date(0).getTime();
+		for (int i = 0; i < sellers; i++) {
+			rows.add(new Seller(i, "Seller " + i, "seller" + i + "@example.com",
+					new Date(base - (i * 7919L % 20000) * DAY_MILLIS), 1000.0 + i % 5000, departments.get(i % 10)));
+		}
+		dateCells = new SimpleDateFormat[visibleRows];
+		for (int i = 0; i < visibleRows; i++) {
+			dateCells[i] = new SimpleDateFormat("dd/MM/yyyy");
+		}
+		dateText = CellFormats.date("dd/MM/yyyy");
+		salaryText = CellFormats.decimal(decimalPlaces);
+	}
+
+	@Benchmark
+	public void legacyFrame(Blackhole bh) {
+		int first = scroll();
+		for (int i = 0; i < visibleRows; i++) {
+			Seller seller = rows.get(first + i);
+			bh.consume(dateCells[i].format(seller.getBirthDate()));
+			bh.consume(String.format("%." + decimalPlaces + "f", seller.getBaseSalary()));
+			bh.consume(seller.getDepartment().getName());
+		}
+	}
+
+	@Benchmark
+	public void cachedFrame(Blackhole bh) {
+		int first = scroll();
+		for (int i = 0; i < visibleRows; i++) {
+			Seller seller = rows.get(first + i);
+			bh.consume(dateText.apply(seller.getBirthDate()));
+			bh.consume(salaryText.apply(seller.getBaseSalary()));
+			bh.consume(seller.getDepartment().getName());
+		}
+	}
+
+	// wraps around at the end of the table like a user scrolling back to the top
+	private int scroll() {
+		top += scrollStep;
+		if (top + visibleRows > rows.size()) {
+			top = 0;
+		}
+		return top;
+	}
+
+}
@@ -0,0 +1,125 @@
+package benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import db.DB;
+import db.DbException;
+import model.dao.DaoFactory;
+import model.dao.SellerDao;
+import model.entities.Department;
+import model.entities.Seller;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SellerDaoBenchmark {
+
+	@Param({ "1000", "100000", "1000000" })
+	private int sellers;
+
+	@Param({ "10" })
+	private int departments;
+
+	private SellerDao dao;
+	private Department department;
+	private Seller middle;
+	private int nextId;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		BenchmarkDatabase.start(sellers, departments);
+		dao = DaoFactory.createSellerDao();
+		department = new Department(1, "Department 1");
+		middle = dao.findById(sellers / 2);
+	}
+
+	// keeps the table at its seeded size between write iterations
+	@Setup(Level.Iteration)
+	public void removeInserted() {
+		Connection conn = DB.getConnection();
+		PreparedStatement ps = null;
+		try {
+			ps = conn.prepareStatement("DELETE FROM seller WHERE Id > ?");
+			ps.setInt(1, sellers);
+			ps.executeUpdate();
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeStatement(ps);
+			DB.closeConnection(conn);
+		}
+		nextId = 0;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		BenchmarkDatabase.stop();
+	}
+
+	@Benchmark
+	public List<Seller> findAll() {
+		return dao.findAll();
+	}
+
+	@Benchmark
+	public List<Seller> findByDepartment() {
+		return dao.findByDepartment(department);
+	}
+
+	@Benchmark
+	public Seller findById() {
+		return dao.findById(sellers / 2);
+	}
+
+	@Benchmark
+	public List<Seller> findPage() {
+		return dao.findPage(middle.getName(), middle.getId(), 100);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Seller insert() {
+		Seller seller = newSeller();
+		dao.insert(seller);
+		return seller;
+	}
+
+	@Benchmark
+	public List<Seller> insertAll1000() {
+		List<Seller> batch = new ArrayList<>(1000);
+		for (int i = 0; i < 1000; i++) {
+			batch.add(newSeller());
+		}
+		dao.insertAll(batch);
+		return batch;
+	}
+
+	private Seller newSeller() {
+		int n = ++nextId;
+		return new Seller(null, "Bench " + n, "bench" + n + "@example.com", new Date(), 2000.0, department);
+	}
+
+}
@@ -0,0 +1,35 @@
+package benchmarks;
+
+import java.util.List;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import model.analytics.SellerSnapshot;
+import model.dao.DaoFactory;
+import model.dao.SellerDao;
+import model.entities.Seller;
+
+// retained heap of the same sellers as List<Seller> and as SellerSnapshot
+public class SellerFootprint {
+
+	public static void main(String[] args) {
+		int sellers = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int departments = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+		BenchmarkDatabase.start(sellers, departments);
+		SellerDao dao = DaoFactory.createSellerDao();
+		List<Seller> list = dao.findAll();
+		SellerSnapshot snapshot = dao.snapshot(1000);
+		BenchmarkDatabase.stop();
+
+		long listBytes = GraphLayout.parseInstance(list).totalSize();
+		long snapshotBytes = GraphLayout.parseInstance(snapshot).totalSize();
+
+		System.out.printf("sellers:        %,d%n", sellers);
+		System.out.printf("List<Seller>:   %,d bytes (%.1f per seller)%n", listBytes, (double) listBytes / sellers);
+		System.out.printf("SellerSnapshot: %,d bytes (%.1f per seller)%n", snapshotBytes,
+				(double) snapshotBytes / sellers);
+		System.out.printf("ratio:          %.2f%n", (double) listBytes / snapshotBytes);
+	}
+
+}
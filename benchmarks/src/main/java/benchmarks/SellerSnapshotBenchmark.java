@@ -0,0 +1,91 @@
+package benchmarks;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.analytics.SellerSnapshot;
+import model.dao.DaoFactory;
+import model.dao.SellerDao;
+import model.entities.Seller;
+
+// the same aggregates over List<Seller> and over the columnar snapshot, both loaded once per trial
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SellerSnapshotBenchmark {
+
+	private static final LocalDate MAX_DAY = LocalDate.of(9999, 12, 31);
+
+	@Param({ "100000" })
+	private int sellers;
+
+	@Param({ "10" })
+	private int departments;
+
+	private List<Seller> list;
+	private SellerSnapshot snapshot;
+	private Date bornFrom;
+	private LocalDate bornFromDay;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		BenchmarkDatabase.start(sellers, departments);
+		SellerDao dao = DaoFactory.createSellerDao();
+		list = dao.findAll();
+		snapshot = dao.snapshot(1000);
+		BenchmarkDatabase.stop();
+		bornFromDay = LocalDate.of(1970, 1, 1);
+		bornFrom = Date.from(bornFromDay.atStartOfDay(ZoneId.systemDefault()).toInstant());
+	}
+
+	@Benchmark
+	public double listTotalSalary() {
+		double total = 0.0;
+		for (Seller seller : list) {
+			total += seller.getBaseSalary();
+		}
+		return total;
+	}
+
+	@Benchmark
+	public double snapshotTotalSalary() {
+		return snapshot.totalSalary();
+	}
+
+	@Benchmark
+	public double listSalaryOfDepartmentBornAfter() {
+		double total = 0.0;
+		for (Seller seller : list) {
+			if (seller.getDepartment().getId() == 3 && !seller.getBirthDate().before(bornFrom)) {
+				total += seller.getBaseSalary();
+			}
+		}
+		return total;
+	}
+
+	@Benchmark
+	public double snapshotSalaryOfDepartmentBornAfter() {
+		int[] rows = snapshot.selectBornBetween(snapshot.selectDepartment(3), bornFromDay, MAX_DAY);
+		return snapshot.totalSalary(rows);
+	}
+
+}
@@ -0,0 +1,97 @@
+package model.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import benchmarks.BenchmarkDatabase;
+import db.DB;
+import model.dao.DepartmentCache;
+import model.entities.Department;
+import model.entities.Seller;
+
+// row mapping only: the query runs once per trial and the scrollable result is rewound per call
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SellerMappingBenchmark {
+
+	private static final String FIND_ALL = "SELECT seller.*, department.Name DepName FROM seller INNER JOIN "
+			+ "department ON seller.departmentId = department.Id ORDER BY Name";
+
+	@Param({ "10000" })
+	private int sellers;
+
+	// few departments means many repeated lookups, many means mostly misses
+	@Param({ "10", "1000" })
+	private int departments;
+
+	private SellerDaoJDBC dao;
+	private Connection conn;
+	private PreparedStatement ps;
+	private ResultSet rs;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		BenchmarkDatabase.start(sellers, departments);
+		dao = new SellerDaoJDBC();
+		conn = DB.getConnection();
+		ps = conn.prepareStatement(FIND_ALL, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+		rs = ps.executeQuery();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		DB.closeResultSet(rs);
+		DB.closeStatement(ps);
+		DB.closeConnection(conn);
+		BenchmarkDatabase.stop();
+	}
+
+	@Benchmark
+	public List<Seller> mapSellers() throws SQLException {
+		rs.beforeFirst();
+		return dao.getDBSellers(rs);
+	}
+
+	// the department part alone: one shared instance per id through the cache
+	@Benchmark
+	public void canonicalDepartments(Blackhole bh) throws SQLException {
+		rs.beforeFirst();
+		DepartmentCache cache = DepartmentCache.getInstance();
+		while (rs.next()) {
+			bh.consume(cache.canonical(rs.getInt("DepartmentId"), rs.getString("DepName")));
+		}
+	}
+
+	// what the mapping cost without de-duplication, a new Department per row
+	@Benchmark
+	public void newDepartmentPerRow(Blackhole bh) throws SQLException {
+		rs.beforeFirst();
+		while (rs.next()) {
+			bh.consume(new Department(rs.getInt("DepartmentId"), rs.getString("DepName")));
+		}
+	}
+
+}
@@ -1,20 +1,32 @@
 package application;
 
+import gui.MainViewController;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.ScrollPane;
 import javafx.stage.Stage;
+import model.services.WriteBehindQueue;
 
 public class Main extends Application {
 
 	private static Scene mainScene;
 
+	private final Startup startup = new Startup();
+
+	// runs on the launcher thread before start(), the database opens while the window is built
+	@Override
+	public void init() {
+		startup.begin();
+	}
+
 	@Override
 	public void start(Stage primaryStage) {
 		try {
 			FXMLLoader loader = new FXMLLoader(getClass().getResource("/gui/MainView.fxml"));
+			long loadStart = System.nanoTime();
 			ScrollPane scrollPane = loader.load();
+			startup.phaseFinished("main view", loadStart);
 			scrollPane.setFitToHeight(true);
 			scrollPane.setFitToWidth(true);
 			mainScene = new Scene(scrollPane);
@@ -22,11 +34,22 @@ public class Main extends Application {
 			primaryStage.setScene(mainScene);
 			primaryStage.setTitle("Sample JavaFX application");
 			primaryStage.show();
+			startup.windowShown();
+
+			MainViewController controller = loader.getController();
+			controller.setStartup(startup);
+			controller.preloadViews();
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 	}
 
+	// queued writes reach the database before the window's exit ends the JVM
+	@Override
+	public void stop() {
+		WriteBehindQueue.closeAll();
+	}
+
 	public static Scene getMainScene() {
 		return mainScene;
 	}
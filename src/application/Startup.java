@@ -0,0 +1,138 @@
+package application;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import db.ConnectionPool;
+import db.DB;
+import db.DbException;
+import gui.SellerListController;
+import gui.util.Utils;
+import model.entities.Department;
+import model.entities.Seller;
+import model.services.DataVersion;
+import model.services.DepartmentService;
+import model.services.SellerService;
+import model.services.ServiceExecutor;
+
+// database work started from Main.init(), so it runs while the toolkit starts and the window is built
+public class Startup {
+
+	private static final Logger LOG = Logger.getLogger(Startup.class.getName());
+
+	private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+	private final long startNanos = System.nanoTime();
+	// milliseconds per phase in the order they finished, guarded by this
+	private final Map<String, Long> phases = new LinkedHashMap<>();
+	private boolean windowShown;
+	private boolean dataReady;
+	private boolean summaryLogged;
+
+	private CompletableFuture<List<Seller>> firstSellerPage;
+	private long firstSellerPageVersion;
+
+	public void begin() {
+		record("jvm until init", ManagementFactory.getRuntimeMXBean().getUptime());
+
+		CompletableFuture<Void> database = ServiceExecutor.runAsync(() -> {
+			time("properties", DB::getProperties);
+			time("connection pool", this::openPool);
+		});
+		CompletableFuture<List<Department>> departments = database.thenApplyAsync(
+				x -> time("departments", () -> new DepartmentService().findAll()), ServiceExecutor.getExecutor());
+		synchronized (this) {
+			firstSellerPageVersion = DataVersion.current(Seller.class, Department.class);
+			firstSellerPage = database.thenApplyAsync(x -> time("first seller page",
+					() -> new SellerService().findPage(null, SellerListController.PAGE_SIZE)),
+					ServiceExecutor.getExecutor());
+		}
+
+		CompletableFuture.allOf(departments, firstSellerPage).whenComplete((x, error) -> {
+			if (error != null) {
+				// nothing is lost, the views run the same queries on demand and report the error there
+				LOG.log(Level.WARNING, "Startup preload failed", Utils.unwrap(error));
+			}
+			synchronized (this) {
+				dataReady = true;
+				record("data ready", elapsedMillis(startNanos));
+				logSummary();
+			}
+		});
+	}
+
+	// migrations run here too, and a connection that is borrowed and checked means the database is really there
+	private ConnectionPool openPool() {
+		Connection conn = DB.getConnection();
+		try {
+			if (!conn.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+				throw new DbException("Database connection is not valid");
+			}
+			return DB.getPool();
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeConnection(conn);
+		}
+	}
+
+	// only the first load gets it, and only if nothing was written since it was read
+	public synchronized CompletableFuture<List<Seller>> takeFirstSellerPage() {
+		CompletableFuture<List<Seller>> page = firstSellerPage;
+		firstSellerPage = null;
+		boolean unchanged = firstSellerPageVersion == DataVersion.current(Seller.class, Department.class);
+		return page != null && unchanged ? page : null;
+	}
+
+	public synchronized void phaseFinished(String phase, long phaseStartNanos) {
+		record(phase, elapsedMillis(phaseStartNanos));
+	}
+
+	private <T> T time(String phase, Supplier<T> work) {
+		long start = System.nanoTime();
+		try {
+			return work.get();
+		} finally {
+			phaseFinished(phase, start);
+		}
+	}
+
+	public synchronized void windowShown() {
+		windowShown = true;
+		record("window shown", elapsedMillis(startNanos));
+		logSummary();
+	}
+
+	private void record(String phase, long millis) {
+		phases.put(phase, millis);
+		LOG.fine("Startup " + phase + ": " + millis + " ms");
+	}
+
+	// each phase is what that step took, window shown and data ready are measured from init
+	private void logSummary() {
+		if (!windowShown || !dataReady || summaryLogged) {
+			return;
+		}
+		summaryLogged = true;
+		StringBuilder sb = new StringBuilder("Startup:");
+		for (Map.Entry<String, Long> p : phases.entrySet()) {
+			sb.append(' ').append(p.getKey()).append(' ').append(p.getValue()).append(" ms,");
+		}
+		sb.setLength(sb.length() - 1);
+		LOG.info(sb.toString());
+	}
+
+	private static long elapsedMillis(long startNanos) {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+	}
+
+}
@@ -0,0 +1,259 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class ConnectionPool implements ConnectionPoolMXBean {
+
+	private static final Logger LOG = Logger.getLogger(ConnectionPool.class.getName());
+
+	private final String url;
+	private final Properties connectionProps;
+
+	private final int minSize;
+	private final int maxSize;
+	private final long borrowTimeoutMillis;
+	private final int validationTimeoutSeconds;
+	private final long idleTimeoutMillis;
+	private final long leakDetectionThresholdMillis;
+	private final int statementCacheSize;
+	private final StatementCache.Stats statementStats = new StatementCache.Stats();
+	private final SlowQueryLog slowQueryLog;
+
+	// idle connections, most recently returned first, so the tail holds the ones to evict
+	private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+	private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+	private final Semaphore permits;
+	private final ScheduledExecutorService housekeeper;
+
+	private volatile boolean closed = false;
+
+	public ConnectionPool(String url, Properties props) {
+		this.url = url;
+		this.connectionProps = connectionProperties(props);
+
+		maxSize = Math.max(1, intProperty(props, "pool.maxSize", 10));
+		minSize = Math.min(maxSize, Math.max(0, intProperty(props, "pool.minSize", 2)));
+		borrowTimeoutMillis = longProperty(props, "pool.borrowTimeoutMillis", 30000);
+		validationTimeoutSeconds = intProperty(props, "pool.validationTimeoutSeconds", 2);
+		idleTimeoutMillis = longProperty(props, "pool.idleTimeoutMillis", 600000);
+		leakDetectionThresholdMillis = longProperty(props, "pool.leakDetectionThresholdMillis", 0);
+		statementCacheSize = intProperty(props, "pool.statementCacheSize", 64);
+		long housekeepingMillis = longProperty(props, "pool.housekeepingIntervalMillis", 30000);
+		slowQueryLog = SlowQueryLog.create(props);
+
+		permits = new Semaphore(maxSize, true);
+
+		housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "db-pool-housekeeper");
+			t.setDaemon(true);
+			return t;
+		});
+		housekeeper.scheduleWithFixedDelay(this::housekeeping, housekeepingMillis, housekeepingMillis,
+				TimeUnit.MILLISECONDS);
+
+		fillToMinimum();
+	}
+
+	public Connection borrow() {
+		if (closed) {
+			throw new DbException("Connection pool is closed");
+		}
+		try {
+			if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				throw new DbException("Timed out after " + borrowTimeoutMillis
+						+ " ms waiting for a database connection (pool size " + maxSize + ")");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DbException("Interrupted while waiting for a database connection");
+		}
+
+		try {
+			PooledConnection pc = null;
+			while ((pc = idle.pollFirst()) != null) {
+				if (pc.isValid(validationTimeoutSeconds)) {
+					break;
+				}
+				pc.closePhysical();
+			}
+			if (pc == null) {
+				pc = newPooledConnection();
+			}
+			borrowed.add(pc);
+			return pc.borrow(leakDetectionThresholdMillis > 0);
+		} catch (RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	void release(PooledConnection pc) {
+		if (!borrowed.remove(pc)) {
+			return;
+		}
+		try {
+			pc.reset();
+			if (closed || idle.size() + borrowed.size() >= maxSize) {
+				pc.closePhysical();
+			} else {
+				idle.offerFirst(pc);
+			}
+		} catch (SQLException e) {
+			pc.closePhysical();
+		} finally {
+			permits.release();
+		}
+	}
+
+	public void close() {
+		closed = true;
+		housekeeper.shutdownNow();
+		PooledConnection pc;
+		while ((pc = idle.pollFirst()) != null) {
+			pc.closePhysical();
+		}
+	}
+
+	@Override
+	public int getMinSize() {
+		return minSize;
+	}
+
+	@Override
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	@Override
+	public int getActiveCount() {
+		return borrowed.size();
+	}
+
+	@Override
+	public int getIdleCount() {
+		return idle.size();
+	}
+
+	@Override
+	public int getTotalCount() {
+		return borrowed.size() + idle.size();
+	}
+
+	@Override
+	public int getWaitingCount() {
+		return permits.getQueueLength();
+	}
+
+	@Override
+	public int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+
+	@Override
+	public long getStatementCacheHits() {
+		return statementStats.getHits();
+	}
+
+	@Override
+	public long getStatementCacheMisses() {
+		return statementStats.getMisses();
+	}
+
+	@Override
+	public long getStatementCacheEvictions() {
+		return statementStats.getEvictions();
+	}
+
+	private PooledConnection newPooledConnection() {
+		try {
+			Connection conn = DriverManager.getConnection(url, connectionProps);
+			return new PooledConnection(this, conn, statementCacheSize, statementStats, slowQueryLog);
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+	}
+
+	private void housekeeping() {
+		try {
+			evictIdle();
+			detectLeaks();
+			fillToMinimum();
+		} catch (RuntimeException e) {
+			LOG.log(Level.WARNING, "Connection pool housekeeping failed", e);
+		}
+	}
+
+	private void evictIdle() {
+		if (idleTimeoutMillis <= 0) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		Iterator<PooledConnection> it = idle.descendingIterator();
+		while (it.hasNext() && getTotalCount() > minSize) {
+			PooledConnection pc = it.next();
+			if (now - pc.getLastReturnedAt() > idleTimeoutMillis && idle.remove(pc)) {
+				pc.closePhysical();
+			}
+		}
+	}
+
+	private void detectLeaks() {
+		if (leakDetectionThresholdMillis <= 0) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		for (PooledConnection pc : borrowed) {
+			if (!pc.isLeakReported() && now - pc.getBorrowedAt() > leakDetectionThresholdMillis) {
+				pc.setLeakReported(true);
+				LOG.log(Level.WARNING, "Connection held for more than " + leakDetectionThresholdMillis
+						+ " ms without being returned to the pool, possible leak", pc.getBorrowTrace());
+			}
+		}
+	}
+
+	private void fillToMinimum() {
+		while (!closed && getTotalCount() < minSize) {
+			try {
+				idle.offerLast(newPooledConnection());
+			} catch (DbException e) {
+				LOG.log(Level.WARNING, "Could not open idle connection: " + e.getMessage());
+				return;
+			}
+		}
+	}
+
+	// pool settings are namespaced with a dot, driver settings are not
+	private static Properties connectionProperties(Properties props) {
+		Properties connProps = new Properties();
+		for (String key : props.stringPropertyNames()) {
+			if (!key.contains(".") && !key.equals("dburl")) {
+				connProps.setProperty(key, props.getProperty(key));
+			}
+		}
+		return connProps;
+	}
+
+	static int intProperty(Properties props, String key, int defaultValue) {
+		String value = props.getProperty(key);
+		return value == null ? defaultValue : Integer.parseInt(value.trim());
+	}
+
+	static long longProperty(Properties props, String key, long defaultValue) {
+		String value = props.getProperty(key);
+		return value == null ? defaultValue : Long.parseLong(value.trim());
+	}
+
+}
@@ -0,0 +1,17 @@
+package db;
+
+// published by DB as workshop:type=ConnectionPool
+public interface ConnectionPoolMXBean {
+
+	int getMinSize();
+	int getMaxSize();
+	int getActiveCount();
+	int getIdleCount();
+	int getTotalCount();
+	int getWaitingCount();
+	int getStatementCacheSize();
+	long getStatementCacheHits();
+	long getStatementCacheMisses();
+	long getStatementCacheEvictions();
+
+}
@@ -3,7 +3,6 @@ package db;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -11,24 +10,83 @@ import java.util.Properties;
 
 public class DB {
 
-	private static Connection conn = null;
-	
+	private static final String POOL_MBEAN = "type=ConnectionPool";
+
+	// POOL_LOCK is held while the pool opens and migrates, only threads that need a new pool wait on it
+	private static final Object POOL_LOCK = new Object();
+	private static final Object PROPERTIES_LOCK = new Object();
+	private static volatile Properties props = null;
+	private static volatile ConnectionPool pool = null;
+
+	// the connection of the UnitOfWork running on this thread
+	private static final ThreadLocal<Connection> BOUND = new ThreadLocal<>();
+
+	// inside a UnitOfWork this is its connection, and closeConnection leaves it open
 	public static Connection getConnection() {
-		if (conn == null) {
-			Properties props = loadProperties();
-			String url = props.getProperty("dburl");
-			try {				
-				conn = DriverManager.getConnection(url, props);
-				return conn;
-			} catch (SQLException e) {
-				throw new DbException(e.getMessage());
+		Connection bound = BOUND.get();
+		if (bound != null) {
+			return bound;
+		}
+		return getPool().borrow();
+	}
+
+	public static boolean isInTransaction() {
+		return BOUND.get() != null;
+	}
+
+	static void bind(Connection conn) {
+		BOUND.set(conn);
+	}
+
+	static void unbind() {
+		BOUND.remove();
+	}
+
+	public static ConnectionPool getPool() {
+		ConnectionPool current = pool;
+		if (current == null) {
+			synchronized (POOL_LOCK) {
+				current = pool;
+				if (current == null) {
+					current = createPool();
+					pool = current;
+				}
 			}
 		}
-		return conn;
+		return current;
 	}
-	
-	public static void closeConnection() {
-		if (conn != null) {
+
+	private static ConnectionPool createPool() {
+		Properties props = getProperties();
+		ConnectionPool created = new ConnectionPool(props.getProperty("dburl"), props);
+		try {
+			prepareSchema(created);
+		} catch (RuntimeException e) {
+			created.close();
+			throw e;
+		}
+		Jmx.register(POOL_MBEAN, created);
+		return created;
+	}
+
+	// runs the pending migrations and checks the indexes once, when the pool is created
+	private static void prepareSchema(ConnectionPool pool) {
+		Properties props = getProperties();
+		Connection conn = pool.borrow();
+		try {
+			if (!"false".equalsIgnoreCase(props.getProperty("migration.enabled"))) {
+				new SchemaMigrator(conn).migrate(ConnectionPool.intProperty(props, "migration.baseline", 1));
+			}
+			if (!"false".equalsIgnoreCase(props.getProperty("migration.checkIndexes"))) {
+				new IndexCheck(conn).check();
+			}
+		} finally {
+			closeConnection(conn);
+		}
+	}
+
+	public static void closeConnection(Connection conn) {
+		if (conn != null && conn != BOUND.get()) {
 			try {
 				conn.close();
 			} catch (SQLException e) {
@@ -36,9 +94,52 @@ public class DB {
 			}
 		}
 	}
-	
+
+	public static void closeConnection() {
+		synchronized (POOL_LOCK) {
+			if (pool != null) {
+				Jmx.unregister(POOL_MBEAN);
+				pool.close();
+				pool = null;
+			}
+		}
+	}
+
+	// reading a setting never waits for the database, even while another thread is in getPool
+	public static Properties getProperties() {
+		Properties loaded = props;
+		if (loaded == null) {
+			synchronized (PROPERTIES_LOCK) {
+				loaded = props;
+				if (loaded == null) {
+					loaded = loadProperties();
+					props = loaded;
+				}
+			}
+		}
+		return loaded;
+	}
+
+	// replaces db.properties, e.g. to run against an embedded database, the next connection uses them
+	public static void setProperties(Properties properties) {
+		synchronized (POOL_LOCK) {
+			closeConnection();
+			synchronized (PROPERTIES_LOCK) {
+				props = properties;
+			}
+		}
+	}
+
+	public static int getIntProperty(String key, int defaultValue) {
+		return ConnectionPool.intProperty(getProperties(), key, defaultValue);
+	}
+
+	public static long getLongProperty(String key, long defaultValue) {
+		return ConnectionPool.longProperty(getProperties(), key, defaultValue);
+	}
+
 	private static Properties loadProperties() {
-		
+
 		try (FileInputStream fs = new FileInputStream("db.properties")) {
 			Properties props = new Properties();
 			props.load(fs);
@@ -46,9 +147,9 @@ public class DB {
 		} catch (IOException e) {
 			throw new DbException(e.getMessage());
 		}
-		
+
 	}
-	
+
 	public static void closeStatement(Statement st) {
 		if (st != null) {
 			try {
@@ -58,7 +159,7 @@ public class DB {
 			}
 		}
 	}
-	
+
 	public static void closeResultSet(ResultSet rs) {
 		if (rs != null) {
 			try {
@@ -68,5 +169,5 @@ public class DB {
 			}
 		}
 	}
-	
+
 }
@@ -0,0 +1,107 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+public class IndexCheck {
+
+	private static final Logger LOG = Logger.getLogger(IndexCheck.class.getName());
+
+	// table, then the leading columns of an index the DAO queries rely on
+	private static final String[][] REQUIRED = {
+			{ "department", "Id" },
+			{ "department", "UpdatedAt" },
+			{ "seller", "Id" },
+			{ "seller", "DepartmentId", "Name" },
+			{ "seller", "Name", "Id" },
+			{ "seller", "UpdatedAt" },
+			{ "deleted_row", "TableName", "DeletedAt" } };
+
+	private final Connection conn;
+
+	public IndexCheck(Connection conn) {
+		this.conn = conn;
+	}
+
+	// logs a warning for each missing index and returns them as "table(col, ...)"
+	public List<String> check() {
+		List<String> missing = new ArrayList<>();
+		try {
+			Map<String, List<List<String>>> indexesByTable = new TreeMap<>();
+			for (String[] required : REQUIRED) {
+				String table = required[0];
+				List<List<String>> indexes = indexesByTable.get(table);
+				if (indexes == null) {
+					indexes = indexes(table);
+					indexesByTable.put(table, indexes);
+				}
+				List<String> columns = lowerCase(Arrays.asList(required).subList(1, required.length));
+				if (!covered(indexes, columns)) {
+					String index = table + "(" + String.join(", ", Arrays.asList(required).subList(1, required.length)) + ")";
+					missing.add(index);
+					LOG.warning("Missing index on " + index + ", queries on " + table + " will scan the table");
+				}
+			}
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		return missing;
+	}
+
+	private static boolean covered(List<List<String>> indexes, List<String> columns) {
+		for (List<String> index : indexes) {
+			if (index.size() >= columns.size() && index.subList(0, columns.size()).equals(columns)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// columns of every index on the table, in key order
+	private List<List<String>> indexes(String table) throws SQLException {
+		DatabaseMetaData meta = conn.getMetaData();
+		Map<String, TreeMap<Short, String>> columnsByIndex = new TreeMap<>();
+		ResultSet rs = null;
+		try {
+			rs = meta.getIndexInfo(conn.getCatalog(), null, table, false, true);
+			while (rs.next()) {
+				String index = rs.getString("INDEX_NAME");
+				String column = rs.getString("COLUMN_NAME");
+				if (index == null || column == null) {
+					continue;
+				}
+				TreeMap<Short, String> columns = columnsByIndex.get(index);
+				if (columns == null) {
+					columns = new TreeMap<>();
+					columnsByIndex.put(index, columns);
+				}
+				columns.put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+			}
+		} finally {
+			DB.closeResultSet(rs);
+		}
+		List<List<String>> indexes = new ArrayList<>();
+		for (TreeMap<Short, String> columns : columnsByIndex.values()) {
+			indexes.add(new ArrayList<>(columns.values()));
+		}
+		return indexes;
+	}
+
+	private static List<String> lowerCase(List<String> values) {
+		List<String> result = new ArrayList<>(values.size());
+		for (String value : values) {
+			result.add(value.toLowerCase(Locale.ROOT));
+		}
+		return result;
+	}
+
+}
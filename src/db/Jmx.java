@@ -0,0 +1,43 @@
+package db;
+
+import java.lang.management.ManagementFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class Jmx {
+
+	private static final Logger LOG = Logger.getLogger(Jmx.class.getName());
+
+	public static final String DOMAIN = "workshop";
+
+	// replaces a bean already registered under the name, monitoring must never stop the application
+	public static void register(String name, Object bean) {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(DOMAIN + ":" + name);
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+			server.registerMBean(bean, objectName);
+		} catch (JMException e) {
+			LOG.log(Level.WARNING, "Could not register MBean " + name, e);
+		}
+	}
+
+	public static void unregister(String name) {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(DOMAIN + ":" + name);
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+		} catch (JMException e) {
+			LOG.log(Level.WARNING, "Could not unregister MBean " + name, e);
+		}
+	}
+
+}
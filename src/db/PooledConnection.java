@@ -0,0 +1,139 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+class PooledConnection {
+
+	private final ConnectionPool pool;
+	private final Connection physical;
+	private final StatementCache statementCache;
+	private final SlowQueryLog slowQueryLog;
+
+	private volatile long borrowedAt;
+	private volatile long lastReturnedAt = System.currentTimeMillis();
+	private volatile Exception borrowTrace;
+	private volatile boolean leakReported;
+
+	PooledConnection(ConnectionPool pool, Connection physical, int statementCacheSize,
+			StatementCache.Stats statementStats, SlowQueryLog slowQueryLog) {
+		this.pool = pool;
+		this.physical = physical;
+		this.slowQueryLog = slowQueryLog;
+		this.statementCache = statementCacheSize > 0
+				? new StatementCache(physical, statementCacheSize, statementStats)
+				: null;
+	}
+
+	Connection borrow(boolean traceBorrower) {
+		borrowedAt = System.currentTimeMillis();
+		borrowTrace = traceBorrower ? new Exception("Connection borrowed here") : null;
+		leakReported = false;
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, new Handle());
+	}
+
+	boolean isValid(int timeoutSeconds) {
+		try {
+			return !physical.isClosed() && physical.isValid(timeoutSeconds);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	void reset() throws SQLException {
+		if (!physical.getAutoCommit()) {
+			physical.rollback();
+			physical.setAutoCommit(true);
+		}
+		if (physical.isReadOnly()) {
+			physical.setReadOnly(false);
+		}
+		physical.clearWarnings();
+		borrowTrace = null;
+		lastReturnedAt = System.currentTimeMillis();
+	}
+
+	void closePhysical() {
+		if (statementCache != null) {
+			statementCache.closeAll();
+		}
+		try {
+			physical.close();
+		} catch (SQLException e) {
+			// the connection is being discarded anyway
+		}
+	}
+
+	long getBorrowedAt() {
+		return borrowedAt;
+	}
+
+	long getLastReturnedAt() {
+		return lastReturnedAt;
+	}
+
+	Exception getBorrowTrace() {
+		return borrowTrace;
+	}
+
+	boolean isLeakReported() {
+		return leakReported;
+	}
+
+	void setLeakReported(boolean leakReported) {
+		this.leakReported = leakReported;
+	}
+
+	// one handle per borrow, so a stale reference can never return a connection someone else is using
+	private class Handle implements InvocationHandler {
+
+		private boolean closed = false;
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (!closed) {
+					closed = true;
+					pool.release(PooledConnection.this);
+				}
+				return null;
+			case "isClosed":
+				return closed || physical.isClosed();
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "PooledConnection[" + physical + "]";
+			default:
+				if (closed) {
+					throw new SQLException("Connection is closed");
+				}
+				Object result;
+				if (statementCache != null && StatementCache.isCacheable(method)) {
+					result = statementCache.prepare((Connection) proxy, (String) args[0],
+							StatementCache.autoGeneratedKeys(args));
+				} else {
+					try {
+						result = method.invoke(physical, args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				}
+				// a CallableStatement is handed out as is, the log only proxies PreparedStatement
+				if (slowQueryLog != null && method.getName().equals("prepareStatement")) {
+					return slowQueryLog.wrap((PreparedStatement) result, (String) args[0], physical);
+				}
+				return result;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,40 @@
+package db;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// lets another thread stop a query while it runs on the server, not just drop its result
+public class QueryCancellation {
+
+	private Statement running;
+	private boolean cancelled;
+
+	public synchronized void cancel() {
+		cancelled = true;
+		if (running != null) {
+			try {
+				running.cancel();
+			} catch (SQLException e) {
+				// the query may have just finished, its result is dropped anyway
+			}
+		}
+	}
+
+	public synchronized boolean isCancelled() {
+		return cancelled;
+	}
+
+	// called before executing, a query cancelled while it waited for a thread never reaches the server
+	public synchronized void attach(Statement st) {
+		if (cancelled) {
+			throw new DbException("Query cancelled");
+		}
+		running = st;
+	}
+
+	// called before the statement is closed, so cancel() never reaches a statement someone else borrowed
+	public synchronized void detach() {
+		running = null;
+	}
+
+}
@@ -0,0 +1,304 @@
+package db;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+public class SchemaMigrator {
+
+	private static final Logger LOG = Logger.getLogger(SchemaMigrator.class.getName());
+
+	// applied in this order, the version is the number after the V
+	static final String[] MIGRATIONS = { "V1__base_tables.sql", "V2__sync_tracking.sql",
+			"V3__seller_indexes.sql", "V4__payroll_projection.sql" };
+
+	private static final String CREATE_VERSION_TABLE = "CREATE TABLE IF NOT EXISTS schema_version ("
+			+ "Version INT NOT NULL PRIMARY KEY, Description VARCHAR(200) NOT NULL, "
+			+ "InstalledAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, ExecutionMillis BIGINT NOT NULL)";
+	private static final String CURRENT_VERSION = "SELECT MAX(Version) FROM schema_version";
+	private static final String INSERT_VERSION = "INSERT INTO schema_version "
+			+ "(Version, Description, ExecutionMillis) VALUES (?, ?, ?)";
+	private static final String CREATE_STEP_TABLE = "CREATE TABLE IF NOT EXISTS schema_version_step ("
+			+ "Version INT NOT NULL, Step INT NOT NULL, PRIMARY KEY (Version, Step))";
+	private static final String COMPLETED_STEPS = "SELECT Step FROM schema_version_step WHERE Version = ?";
+	private static final String INSERT_STEP = "INSERT INTO schema_version_step (Version, Step) VALUES (?, ?)";
+	private static final String DELETE_STEPS = "DELETE FROM schema_version_step WHERE Version = ?";
+
+	// held for the whole migration so two instances starting together do not both apply it
+	private static final String LOCK_NAME = "schema_migration";
+	private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+	private final Connection conn;
+	private final String[] migrations;
+
+	public SchemaMigrator(Connection conn) {
+		this(conn, MIGRATIONS);
+	}
+
+	SchemaMigrator(Connection conn, String... migrations) {
+		this.conn = conn;
+		this.migrations = migrations;
+	}
+
+	// baselineVersion is recorded without running anything when the tables predate schema_version
+	public int migrate(int baselineVersion) {
+		boolean locked = false;
+		try {
+			locked = lock();
+			boolean existingSchema = tableExists("seller") && !tableExists("schema_version");
+			createVersionTable();
+
+			int current = currentVersion();
+			if (current == 0 && existingSchema) {
+				int baseline = Math.max(1, baselineVersion);
+				if (tableExists("deleted_row")) {
+					// change tracking was installed before migrations existed
+					baseline = Math.max(2, baseline);
+				}
+				LOG.info("Existing schema without schema_version, baseline at version " + baseline);
+				for (String migration : migrations) {
+					if (version(migration) <= baseline) {
+						recordVersion(migration, 0);
+					}
+				}
+				current = baseline;
+			}
+
+			for (String migration : migrations) {
+				if (version(migration) > current) {
+					apply(migration);
+					current = version(migration);
+				}
+			}
+			return current;
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			if (locked) {
+				unlock();
+			}
+		}
+	}
+
+	// MySQL commits every DDL statement on its own, so each statement is recorded as a step once it
+	// succeeded and a migration that failed halfway resumes after its last completed step
+	private void apply(String migration) throws SQLException {
+		long start = System.currentTimeMillis();
+		int version = version(migration);
+		Set<Integer> completed = completedSteps(version);
+		if (!completed.isEmpty()) {
+			LOG.info("Resuming schema migration " + migration + " after " + completed.size() + " completed steps");
+		}
+		List<String> statements = readStatements(migration);
+		Statement st = null;
+		try {
+			st = conn.createStatement();
+			for (int step = 1; step <= statements.size(); step++) {
+				if (completed.contains(step)) {
+					continue;
+				}
+				String sql = statements.get(step - 1);
+				try {
+					st.execute(sql);
+				} catch (SQLException e) {
+					throw new DbException("Migration " + migration + " failed at step " + step + ": "
+							+ e.getMessage() + " in " + sql);
+				}
+				recordStep(version, step);
+			}
+		} finally {
+			DB.closeStatement(st);
+		}
+		long elapsed = System.currentTimeMillis() - start;
+		recordVersion(migration, elapsed);
+		deleteSteps(version);
+		LOG.info("Applied schema migration " + migration + " in " + elapsed + " ms");
+	}
+
+	// GET_LOCK is MySQL only, other databases (H2 in the benchmarks and tests) migrate unlocked
+	private boolean lock() throws SQLException {
+		if (!"MySQL".equalsIgnoreCase(conn.getMetaData().getDatabaseProductName())) {
+			return false;
+		}
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			ps = conn.prepareStatement("SELECT GET_LOCK(?, ?)");
+			ps.setString(1, LOCK_NAME);
+			ps.setInt(2, LOCK_TIMEOUT_SECONDS);
+			rs = ps.executeQuery();
+			if (!rs.next() || rs.getInt(1) != 1) {
+				throw new DbException("Timed out after " + LOCK_TIMEOUT_SECONDS
+						+ " s waiting for another instance to finish the schema migration");
+			}
+			return true;
+		} finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(ps);
+		}
+	}
+
+	// a failure here must not hide the migration result, the lock also ends with the session
+	private void unlock() {
+		PreparedStatement ps = null;
+		try {
+			ps = conn.prepareStatement("SELECT RELEASE_LOCK(?)");
+			ps.setString(1, LOCK_NAME);
+			ps.execute();
+		} catch (SQLException e) {
+			LOG.warning("Could not release the schema migration lock: " + e.getMessage());
+		} finally {
+			DB.closeStatement(ps);
+		}
+	}
+
+	private void createVersionTable() throws SQLException {
+		Statement st = null;
+		try {
+			st = conn.createStatement();
+			st.execute(CREATE_VERSION_TABLE);
+			st.execute(CREATE_STEP_TABLE);
+		} finally {
+			DB.closeStatement(st);
+		}
+	}
+
+	private int currentVersion() throws SQLException {
+		Statement st = null;
+		ResultSet rs = null;
+		try {
+			st = conn.createStatement();
+			rs = st.executeQuery(CURRENT_VERSION);
+			return rs.next() ? rs.getInt(1) : 0;
+		} finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+		}
+	}
+
+	private void recordVersion(String migration, long elapsed) throws SQLException {
+		PreparedStatement ps = null;
+		try {
+			ps = conn.prepareStatement(INSERT_VERSION);
+			ps.setInt(1, version(migration));
+			ps.setString(2, description(migration));
+			ps.setLong(3, elapsed);
+			ps.executeUpdate();
+		} finally {
+			DB.closeStatement(ps);
+		}
+	}
+
+	private Set<Integer> completedSteps(int version) throws SQLException {
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			ps = conn.prepareStatement(COMPLETED_STEPS);
+			ps.setInt(1, version);
+			rs = ps.executeQuery();
+			Set<Integer> steps = new HashSet<>();
+			while (rs.next()) {
+				steps.add(rs.getInt(1));
+			}
+			return steps;
+		} finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(ps);
+		}
+	}
+
+	private void recordStep(int version, int step) throws SQLException {
+		PreparedStatement ps = null;
+		try {
+			ps = conn.prepareStatement(INSERT_STEP);
+			ps.setInt(1, version);
+			ps.setInt(2, step);
+			ps.executeUpdate();
+		} finally {
+			DB.closeStatement(ps);
+		}
+	}
+
+	private void deleteSteps(int version) throws SQLException {
+		PreparedStatement ps = null;
+		try {
+			ps = conn.prepareStatement(DELETE_STEPS);
+			ps.setInt(1, version);
+			ps.executeUpdate();
+		} finally {
+			DB.closeStatement(ps);
+		}
+	}
+
+	private boolean tableExists(String table) throws SQLException {
+		DatabaseMetaData meta = conn.getMetaData();
+		ResultSet rs = null;
+		try {
+			rs = meta.getTables(conn.getCatalog(), null, table, new String[] { "TABLE" });
+			return rs.next();
+		} finally {
+			DB.closeResultSet(rs);
+		}
+	}
+
+	// every migration's statements in order, for a schema built without version tracking
+	public static List<String> allStatements() {
+		List<String> statements = new ArrayList<>();
+		for (String migration : MIGRATIONS) {
+			statements.addAll(readStatements(migration));
+		}
+		return statements;
+	}
+
+	// one statement per ';' at the end of a line, lines starting with -- are comments
+	static List<String> readStatements(String migration) {
+		InputStream in = SchemaMigrator.class.getResourceAsStream("sql/" + migration);
+		if (in == null) {
+			throw new DbException("Migration " + migration + " not found on the classpath");
+		}
+		List<String> statements = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			StringBuilder sql = new StringBuilder();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String trimmed = line.trim();
+				if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+					continue;
+				}
+				sql.append(line).append('\n');
+				if (trimmed.endsWith(";")) {
+					statements.add(sql.substring(0, sql.lastIndexOf(";")).trim());
+					sql.setLength(0);
+				}
+			}
+			if (sql.toString().trim().length() > 0) {
+				statements.add(sql.toString().trim());
+			}
+		} catch (IOException e) {
+			throw new DbException(e.getMessage());
+		}
+		return statements;
+	}
+
+	private static int version(String migration) {
+		return Integer.parseInt(migration.substring(1, migration.indexOf("__")));
+	}
+
+	private static String description(String migration) {
+		return migration.substring(migration.indexOf("__") + 2, migration.lastIndexOf('.')).replace('_', ' ');
+	}
+
+}
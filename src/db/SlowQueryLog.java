@@ -0,0 +1,311 @@
+package db;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.FileHandler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+
+// times the execute calls of prepared statements and logs the ones at or above slowQuery.thresholdMillis;
+// only the result of a slow query is wrapped, to count the rows the caller reads from it
+class SlowQueryLog {
+
+	private static final Logger LOG = Logger.getLogger(SlowQueryLog.class.getName());
+
+	private static final int MAX_VALUE_LENGTH = 100;
+
+	private final long thresholdNanos;
+	private final boolean explain;
+
+	private SlowQueryLog(long thresholdMillis, boolean explain) {
+		this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+		this.explain = explain;
+	}
+
+	// null unless slowQuery.thresholdMillis is set, the pool then hands out the driver's statements as is
+	static SlowQueryLog create(Properties props) {
+		long threshold = ConnectionPool.longProperty(props, "slowQuery.thresholdMillis", -1);
+		if (threshold < 0) {
+			return null;
+		}
+		configureFile(props);
+		return new SlowQueryLog(threshold, "true".equalsIgnoreCase(props.getProperty("slowQuery.explain")));
+	}
+
+	// rotating file next to the console output, only when slowQuery.file names one
+	private static synchronized void configureFile(Properties props) {
+		String pattern = props.getProperty("slowQuery.file", "");
+		if (pattern.isEmpty()) {
+			return;
+		}
+		for (java.util.logging.Handler handler : LOG.getHandlers()) {
+			if (handler instanceof FileHandler) {
+				return;
+			}
+		}
+		try {
+			FileHandler file = new FileHandler(pattern, ConnectionPool.intProperty(props, "slowQuery.fileSizeBytes",
+					10 * 1024 * 1024), ConnectionPool.intProperty(props, "slowQuery.fileCount", 5), true);
+			file.setFormatter(new SimpleFormatter());
+			LOG.addHandler(file);
+		} catch (IOException e) {
+			LOG.log(Level.WARNING, "Could not open slow query log " + pattern, e);
+		}
+	}
+
+	PreparedStatement wrap(PreparedStatement ps, String sql, Connection physical) {
+		return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+				new Class<?>[] { PreparedStatement.class }, new TimedStatement(ps, sql, physical));
+	}
+
+	private class TimedStatement implements InvocationHandler {
+
+		private final PreparedStatement target;
+		private final String sql;
+		private final Connection physical;
+		private final Map<Integer, Object> parameters = new TreeMap<>();
+		private int batchSize;
+
+		// a slow query is logged once its result is done with, so EXPLAIN never runs beside a streaming result
+		private long pendingNanos = -1;
+		private String pendingParameters;
+		private CountedResult pendingResult;
+
+		TimedStatement(PreparedStatement target, String sql, Connection physical) {
+			this.target = target;
+			this.sql = sql;
+			this.physical = physical;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			switch (name) {
+			case "executeQuery":
+				finishQuery();
+				long start = System.nanoTime();
+				ResultSet rs = (ResultSet) invokeTarget(method, args);
+				long queryNanos = System.nanoTime() - start;
+				if (queryNanos < thresholdNanos) {
+					return rs;
+				}
+				pendingNanos = queryNanos;
+				pendingParameters = describeParameters();
+				pendingResult = new CountedResult(rs, (PreparedStatement) proxy, this);
+				return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+						pendingResult);
+			case "execute":
+			case "executeUpdate":
+			case "executeLargeUpdate":
+			case "executeBatch":
+			case "executeLargeBatch":
+				finishQuery();
+				long executeStart = System.nanoTime();
+				Object result = invokeTarget(method, args);
+				long elapsed = System.nanoTime() - executeStart;
+				if (elapsed >= thresholdNanos) {
+					log(elapsed, rowCount(result), describeParameters());
+				}
+				batchSize = 0;
+				return result;
+			case "addBatch":
+				batchSize++;
+				return invokeTarget(method, args);
+			case "clearParameters":
+				parameters.clear();
+				return invokeTarget(method, args);
+			case "clearBatch":
+				batchSize = 0;
+				return invokeTarget(method, args);
+			case "close":
+				Object closed = invokeTarget(method, args);
+				finishQuery();
+				return closed;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			default:
+				if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+					parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+				}
+				return invokeTarget(method, args);
+			}
+		}
+
+		private Object invokeTarget(Method method, Object[] args) throws Throwable {
+			return invokeOn(target, method, args);
+		}
+
+		// closing the result, re-executing or closing the statement ends the previous result
+		private void finishQuery() {
+			if (pendingNanos >= 0) {
+				long nanos = pendingNanos;
+				pendingNanos = -1;
+				log(nanos, pendingResult.rows, pendingParameters);
+			}
+			pendingResult = null;
+		}
+
+		// for a query, rows counts what the caller read before closing the result
+		private void log(long nanos, long rows, String boundParameters) {
+			StringBuilder msg = new StringBuilder();
+			msg.append(String.format(Locale.ROOT, "Slow query: %.1f ms, %d rows", nanos / 1_000_000.0, rows));
+			msg.append(System.lineSeparator());
+			msg.append("  SQL: ").append(sql.trim()).append(System.lineSeparator());
+			msg.append("  Parameters: ").append(boundParameters);
+			if (explain) {
+				msg.append(System.lineSeparator()).append(explainPlan());
+			}
+			LOG.warning(msg.toString());
+		}
+
+		private String describeParameters() {
+			StringBuilder sb = new StringBuilder("[");
+			for (Map.Entry<Integer, Object> p : parameters.entrySet()) {
+				if (sb.length() > 1) {
+					sb.append(", ");
+				}
+				sb.append(p.getKey()).append('=').append(describe(p.getValue()));
+			}
+			sb.append(']');
+			if (batchSize > 0) {
+				sb.append(" last of a batch of ").append(batchSize);
+			}
+			return sb.toString();
+		}
+
+		// only runs after the result was closed, so a streaming result never blocks the connection
+		private String explainPlan() {
+			String statement = sql.trim();
+			String verb = statement.split("\\s+", 2)[0].toUpperCase(Locale.ROOT);
+			if (!verb.equals("SELECT") && !verb.equals("UPDATE") && !verb.equals("DELETE")) {
+				return "  EXPLAIN: not available for " + verb;
+			}
+			PreparedStatement ps = null;
+			ResultSet rs = null;
+			try {
+				ps = physical.prepareStatement("EXPLAIN " + statement);
+				for (Map.Entry<Integer, Object> p : parameters.entrySet()) {
+					ps.setObject(p.getKey(), p.getValue());
+				}
+				rs = ps.executeQuery();
+				ResultSetMetaData meta = rs.getMetaData();
+				StringBuilder sb = new StringBuilder("  EXPLAIN:");
+				while (rs.next()) {
+					sb.append(System.lineSeparator()).append("   ");
+					for (int i = 1; i <= meta.getColumnCount(); i++) {
+						sb.append(' ').append(meta.getColumnLabel(i)).append('=').append(rs.getString(i));
+					}
+				}
+				return sb.toString();
+			} catch (SQLException e) {
+				return "  EXPLAIN failed: " + e.getMessage();
+			} finally {
+				DB.closeResultSet(rs);
+				DB.closeStatement(ps);
+			}
+		}
+	}
+
+	private static class CountedResult implements InvocationHandler {
+
+		private final ResultSet target;
+		private final PreparedStatement statement;
+		private final TimedStatement owner;
+		private long rows;
+
+		CountedResult(ResultSet target, PreparedStatement statement, TimedStatement owner) {
+			this.target = target;
+			this.statement = statement;
+			this.owner = owner;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "next":
+				boolean hasRow = (Boolean) invokeOn(target, method, args);
+				if (hasRow) {
+					rows++;
+				}
+				return hasRow;
+			case "close":
+				Object closed = invokeOn(target, method, args);
+				if (owner.pendingResult == this) {
+					owner.finishQuery();
+				}
+				return closed;
+			case "getStatement":
+				return statement;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			default:
+				return invokeOn(target, method, args);
+			}
+		}
+	}
+
+	private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private static long rowCount(Object result) {
+		if (result instanceof Integer || result instanceof Long) {
+			return ((Number) result).longValue();
+		}
+		long rows = 0;
+		if (result instanceof int[]) {
+			for (int n : (int[]) result) {
+				rows += Math.max(0, n);
+			}
+		} else if (result instanceof long[]) {
+			for (long n : (long[]) result) {
+				rows += Math.max(0, n);
+			}
+		}
+		return rows;
+	}
+
+	private static String describe(Object value) {
+		if (value == null) {
+			return "NULL";
+		}
+		if (value instanceof Number || value instanceof Boolean) {
+			return value.toString();
+		}
+		if (value instanceof byte[]) {
+			return "<" + ((byte[]) value).length + " bytes>";
+		}
+		if (value instanceof CharSequence || value instanceof java.util.Date
+				|| value instanceof java.time.temporal.Temporal) {
+			String text = value.toString();
+			if (text.length() > MAX_VALUE_LENGTH) {
+				text = text.substring(0, MAX_VALUE_LENGTH) + "...";
+			}
+			return "'" + text.replace("'", "''") + "'";
+		}
+		return "<" + value.getClass().getSimpleName() + ">";
+	}
+
+}
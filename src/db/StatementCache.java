@@ -0,0 +1,213 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+class StatementCache {
+
+	private final Connection physical;
+	private final int maxSize;
+	private final Stats stats;
+
+	// access ordered, so the eldest entry is the least recently used statement
+	private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+	StatementCache(Connection physical, int maxSize, Stats stats) {
+		this.physical = physical;
+		this.maxSize = maxSize;
+		this.stats = stats;
+	}
+
+	// connection is the pooled handle the statement was prepared on, getConnection() returns it
+	synchronized PreparedStatement prepare(Connection connection, String sql, int autoGeneratedKeys)
+			throws SQLException {
+		String key = autoGeneratedKeys + ":" + sql;
+		CachedStatement cs = statements.get(key);
+		if (cs != null && !cs.inUse) {
+			stats.hits.increment();
+			cs.inUse = true;
+			return new Handle(cs, cs.physical, connection).proxy;
+		}
+
+		stats.misses.increment();
+		PreparedStatement ps = physical.prepareStatement(sql, autoGeneratedKeys);
+		if (cs != null) {
+			// same SQL already checked out on this connection, hand out an uncached statement
+			return new Handle(null, ps, connection).proxy;
+		}
+
+		cs = new CachedStatement(ps);
+		cs.inUse = true;
+		statements.put(key, cs);
+		evictOverflow();
+		return new Handle(cs, ps, connection).proxy;
+	}
+
+	synchronized void closeAll() {
+		for (CachedStatement cs : statements.values()) {
+			cs.closePhysical();
+		}
+		statements.clear();
+	}
+
+	synchronized int size() {
+		return statements.size();
+	}
+
+	private void evictOverflow() {
+		Iterator<Map.Entry<String, CachedStatement>> it = statements.entrySet().iterator();
+		while (statements.size() > maxSize && it.hasNext()) {
+			CachedStatement eldest = it.next().getValue();
+			it.remove();
+			stats.evictions.increment();
+			eldest.evicted = true;
+			if (!eldest.inUse) {
+				eldest.closePhysical();
+			}
+		}
+	}
+
+	private synchronized void checkIn(CachedStatement cs) throws SQLException {
+		cs.inUse = false;
+		if (cs.evicted) {
+			cs.closePhysical();
+			return;
+		}
+		ResultSet rs = cs.physical.getResultSet();
+		if (rs != null) {
+			rs.close();
+		}
+		cs.physical.clearParameters();
+		cs.physical.clearBatch();
+		cs.physical.clearWarnings();
+		// the next borrower expects a freshly prepared statement, not the last one's limits
+		// max rows first, some drivers refuse a fetch size above it
+		if (cs.physical.getMaxRows() != cs.maxRows) {
+			cs.physical.setMaxRows(cs.maxRows);
+		}
+		if (cs.physical.getFetchSize() != cs.fetchSize) {
+			cs.physical.setFetchSize(cs.fetchSize);
+		}
+		if (cs.physical.getQueryTimeout() != cs.queryTimeout) {
+			cs.physical.setQueryTimeout(cs.queryTimeout);
+		}
+	}
+
+	static class Stats {
+
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder misses = new LongAdder();
+		private final LongAdder evictions = new LongAdder();
+
+		long getHits() {
+			return hits.sum();
+		}
+
+		long getMisses() {
+			return misses.sum();
+		}
+
+		long getEvictions() {
+			return evictions.sum();
+		}
+	}
+
+	private static class CachedStatement {
+
+		private final PreparedStatement physical;
+		private final int fetchSize;
+		private final int maxRows;
+		private final int queryTimeout;
+		private boolean inUse;
+		private boolean evicted;
+
+		CachedStatement(PreparedStatement physical) throws SQLException {
+			this.physical = physical;
+			this.fetchSize = physical.getFetchSize();
+			this.maxRows = physical.getMaxRows();
+			this.queryTimeout = physical.getQueryTimeout();
+		}
+
+		void closePhysical() {
+			try {
+				physical.close();
+			} catch (SQLException e) {
+				// the statement is being discarded anyway
+			}
+		}
+	}
+
+	// one handle per borrow, so a stale reference cannot touch the statement after the next borrower got it
+	private class Handle implements InvocationHandler {
+
+		private final CachedStatement cached;
+		private final PreparedStatement physical;
+		private final Connection connection;
+		private final PreparedStatement proxy;
+		private boolean closed = false;
+
+		Handle(CachedStatement cached, PreparedStatement physical, Connection connection) {
+			this.cached = cached;
+			this.physical = physical;
+			this.connection = connection;
+			this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, this);
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (!closed) {
+					closed = true;
+					if (cached != null) {
+						checkIn(cached);
+					} else {
+						physical.close();
+					}
+				}
+				return null;
+			case "isClosed":
+				return closed || physical.isClosed();
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			default:
+				if (closed) {
+					throw new SQLException("Statement is closed");
+				}
+				if (method.getName().equals("getConnection")) {
+					return connection;
+				}
+				try {
+					return method.invoke(physical, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+		}
+	}
+
+	static boolean isCacheable(Method method) {
+		Class<?>[] types = method.getParameterTypes();
+		return method.getName().equals("prepareStatement")
+				&& (types.length == 1 || (types.length == 2 && types[1] == int.class));
+	}
+
+	static int autoGeneratedKeys(Object[] args) {
+		return args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+	}
+
+}
@@ -0,0 +1,84 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+// binds one connection to the calling thread, so every DAO call in the work shares it and commits once;
+// DAO calls made on other threads do not join, and generated ids are only valid once the work commits
+public class UnitOfWork {
+
+	public static void run(Runnable work) {
+		call(() -> {
+			work.run();
+			return null;
+		});
+	}
+
+	// a unit started inside another one joins it, only the outermost commits or rolls back
+	public static <T> T call(Supplier<T> work) {
+		if (DB.isInTransaction()) {
+			return work.get();
+		}
+
+		Connection conn = DB.getConnection();
+		boolean autoCommit = true;
+		Throwable failure = null;
+		try {
+			autoCommit = conn.getAutoCommit();
+			conn.setAutoCommit(false);
+			DB.bind(conn);
+			T result = work.get();
+			conn.commit();
+			return result;
+		} catch (SQLException e) {
+			DbException error = new DbException(e.getMessage());
+			failure = error;
+			rollback(conn, error);
+			throw error;
+		} catch (RuntimeException | Error e) {
+			failure = e;
+			rollback(conn, e);
+			throw e;
+		} finally {
+			DB.unbind();
+			release(conn, autoCommit, failure);
+		}
+	}
+
+	private static void rollback(Connection conn, Throwable failure) {
+		try {
+			conn.rollback();
+		} catch (SQLException e) {
+			failure.addSuppressed(e);
+		}
+	}
+
+	// a failure here is attached to the work's own failure, so it never hides why the work failed
+	private static void release(Connection conn, boolean autoCommit, Throwable failure) {
+		RuntimeException releaseError = null;
+		try {
+			conn.setAutoCommit(autoCommit);
+		} catch (SQLException e) {
+			releaseError = new DbException(e.getMessage());
+		}
+		try {
+			DB.closeConnection(conn);
+		} catch (RuntimeException e) {
+			if (releaseError == null) {
+				releaseError = e;
+			} else {
+				releaseError.addSuppressed(e);
+			}
+		}
+		if (releaseError == null) {
+			return;
+		}
+		if (failure != null) {
+			failure.addSuppressed(releaseError);
+		} else {
+			throw releaseError;
+		}
+	}
+
+}
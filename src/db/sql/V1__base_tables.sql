@@ -0,0 +1,17 @@
+-- tables used by DepartmentDao and SellerDao
+CREATE TABLE IF NOT EXISTS department (
+	Id INT NOT NULL AUTO_INCREMENT,
+	Name VARCHAR(60) DEFAULT NULL,
+	PRIMARY KEY (Id)
+);
+
+CREATE TABLE IF NOT EXISTS seller (
+	Id INT NOT NULL AUTO_INCREMENT,
+	Name VARCHAR(60) NOT NULL,
+	Email VARCHAR(100) NOT NULL,
+	BirthDate DATETIME NOT NULL,
+	BaseSalary DOUBLE NOT NULL,
+	DepartmentId INT NOT NULL,
+	PRIMARY KEY (Id),
+	CONSTRAINT fk_seller_department FOREIGN KEY (DepartmentId) REFERENCES department (Id)
+);
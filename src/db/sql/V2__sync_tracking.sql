@@ -0,0 +1,25 @@
+-- change tracking used by SellerDao/DepartmentDao.findModifiedSince
+-- one DDL action per statement, the migrator records its progress statement by statement
+ALTER TABLE department
+	ADD COLUMN UpdatedAt TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3);
+
+ALTER TABLE department ADD INDEX idx_department_updated_at (UpdatedAt);
+
+ALTER TABLE seller
+	ADD COLUMN UpdatedAt TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3);
+
+ALTER TABLE seller ADD INDEX idx_seller_updated_at (UpdatedAt);
+
+CREATE TABLE deleted_row (
+	TableName VARCHAR(30) NOT NULL,
+	RowId INT NOT NULL,
+	DeletedAt TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+	PRIMARY KEY (TableName, RowId),
+	INDEX idx_deleted_row_deleted_at (TableName, DeletedAt)
+);
+
+CREATE TRIGGER department_deleted AFTER DELETE ON department FOR EACH ROW
+	REPLACE INTO deleted_row (TableName, RowId, DeletedAt) VALUES ('department', OLD.Id, CURRENT_TIMESTAMP(3));
+
+CREATE TRIGGER seller_deleted AFTER DELETE ON seller FOR EACH ROW
+	REPLACE INTO deleted_row (TableName, RowId, DeletedAt) VALUES ('seller', OLD.Id, CURRENT_TIMESTAMP(3));
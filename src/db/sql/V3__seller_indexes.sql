@@ -0,0 +1,8 @@
+-- findByDepartment filters on DepartmentId and sorts by Name
+ALTER TABLE seller ADD INDEX idx_seller_department_name (DepartmentId, Name);
+
+-- findAll, findPage and search sort and seek on (Name, Id)
+ALTER TABLE seller ADD INDEX idx_seller_name_id (Name, Id);
+
+-- search by email prefix
+ALTER TABLE seller ADD INDEX idx_seller_email (Email);
@@ -0,0 +1,12 @@
+-- written by PayrollEngine, one row per seller and period
+CREATE TABLE payroll_projection (
+	Period VARCHAR(20) NOT NULL,
+	SellerId INT NOT NULL,
+	DepartmentId INT NOT NULL,
+	BaseSalary DOUBLE NOT NULL,
+	Gross DOUBLE NOT NULL,
+	Bonus DOUBLE NOT NULL,
+	Tax DOUBLE NOT NULL,
+	Net DOUBLE NOT NULL,
+	PRIMARY KEY (Period, SellerId)
+);
@@ -7,7 +7,7 @@ import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
 
-import db.DbException;
+import gui.listeners.DataChangeEvent;
 import gui.listeners.DataChangeListener;
 import gui.util.Alerts;
 import gui.util.Constraints;
@@ -20,6 +20,7 @@ import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.GridPane;
+import javafx.stage.Stage;
 import model.entities.Department;
 import model.exceptions.ValidationException;
 import model.services.DepartmentService;
@@ -52,7 +53,9 @@ public class DepartmentFormController implements Initializable {
 	}
 
 	public void subscribeDataChangeListener(DataChangeListener listener) {
-		dataChangeListeners.add(listener);
+		if (!dataChangeListeners.contains(listener)) {
+			dataChangeListeners.add(listener);
+		}
 	}
 
 	@FXML
@@ -63,21 +66,31 @@ public class DepartmentFormController implements Initializable {
 		if (service == null) {
 			throw new IllegalStateException("Service was null");
 		}
+		boolean isNew = department.getId() == null;
 		try {
 			department = getFormData();
-			service.saveOrUpdate(department);
-			notifyDataChangeListeners();
-			Utils.currentStage(event).close();
 		} catch (ValidationException e) {
 			setErrorMessages(e.getErrors());
-		} catch (DbException e) {
-			Alerts.showAlert("Error saving object", null, e.getMessage(), AlertType.ERROR);
+			return;
 		}
+		Stage stage = Utils.currentStage(event);
+		Department saved = department;
+		btnSave.setDisable(true);
+		service.saveOrUpdateAsync(saved).whenCompleteAsync((result, error) -> {
+			btnSave.setDisable(false);
+			if (error != null) {
+				Alerts.showAlert("Error saving object", null, Utils.unwrap(error).getMessage(), AlertType.ERROR);
+				return;
+			}
+			notifyDataChangeListeners(isNew ? DataChangeEvent.inserted(Department.class, saved)
+					: DataChangeEvent.updated(Department.class, saved));
+			stage.close();
+		}, Utils.FX_THREAD);
 	}
 
-	private void notifyDataChangeListeners() {
+	private void notifyDataChangeListeners(DataChangeEvent<?> event) {
 		for (DataChangeListener listener : dataChangeListeners) {
-			listener.onDataChanged();
+			listener.onDataChanged(event);
 		}
 	}
 
@@ -117,6 +130,9 @@ public class DepartmentFormController implements Initializable {
 		}
 		txtFieldId.setText(String.valueOf(department.getId()));
 		txtFieldName.setText(String.valueOf(department.getName()));
+		// the form is reused, errors from the last edit must not show on the next one
+		labelErrorName.setText("");
+		btnSave.setDisable(false);
 	}
 	
 	private void setErrorMessages(Map<String, String> errors) {
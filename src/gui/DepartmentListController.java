@@ -1,40 +1,46 @@
 package gui;
 
-import java.io.IOException;
 import java.net.URL;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
 import application.Main;
-import db.DbException;
+import gui.listeners.DataChangeEvent;
 import gui.listeners.DataChangeListener;
 import gui.util.Alerts;
+import gui.util.ChangePoller;
+import gui.util.FormDialog;
 import gui.util.Utils;
-import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
-import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.layout.Pane;
-import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 import model.entities.Department;
 import model.services.DepartmentService;
 
 public class DepartmentListController implements Initializable, DataChangeListener {
 
 	private DepartmentService depService;
+	// removes onWriteFailed from the service's queue, which outlives this view
+	private Runnable writeFailureRegistration;
+	private ChangePoller<Department> changePoller;
+	// built once and reused for every new and edit, only its data is reset per show
+	private final FormDialog<DepartmentFormController> formDialog = new FormDialog<>("/gui/DepartmentForm.fxml",
+			"Enter department data", form -> {
+				form.setDepartmentService(depService);
+				form.subscribeDataChangeListener(this);
+			});
 	private ObservableList<Department> obsList;
 
 	@FXML
@@ -52,9 +58,7 @@ public class DepartmentListController implements Initializable, DataChangeListen
 
 	@FXML
 	public void onBtNewAction(ActionEvent event) {
-		Stage parentStage = Utils.currentStage(event);
-		Department dep = new Department(null, "");
-		createDialogForm(dep, depService, "/gui/DepartmentForm.fxml", parentStage);
+		openForm(new Department(null, ""));
 	}
 
 	@Override
@@ -65,53 +69,69 @@ public class DepartmentListController implements Initializable, DataChangeListen
 	private void initializeNodes() {
 		tableColumnId.setCellValueFactory(new PropertyValueFactory<>("id"));
 		tableColumnName.setCellValueFactory(new PropertyValueFactory<>("name"));
+		initEditButtons();
+		initRemoveButtons();
+
+		// only poll for other users' changes while the table is on screen
+		tableViewDepartment.sceneProperty().addListener((obs, oldScene, newScene) -> {
+			if (changePoller == null) {
+				return;
+			}
+			if (newScene == null) {
+				changePoller.stop();
+			} else {
+				changePoller.start();
+			}
+		});
 
 		Stage stage = (Stage) Main.getMainScene().getWindow();
 		tableViewDepartment.prefHeightProperty().bind(stage.heightProperty());
+		// the cached views go with the main window
+		stage.addEventHandler(WindowEvent.WINDOW_HIDDEN, event -> removeWriteFailureListener());
 
 	}
 
 	public void setDepartmentService(DepartmentService depService) {
 		this.depService = depService;
+		if (changePoller != null) {
+			changePoller.stop();
+		}
+		changePoller = new ChangePoller<>(Department.class, depService::findModifiedSince, this);
+		if (tableViewDepartment.getScene() != null) {
+			changePoller.start();
+		}
+		removeWriteFailureListener();
+		writeFailureRegistration = depService.addWriteFailureListener(this::onWriteFailed);
 	}
 
-	public void initEditButtons() {
-		tableColumnEDIT.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
-		tableColumnEDIT.setCellFactory(param -> new TableCell<Department, Department>() {
-			private final Button button = new Button("edit");
-
-			@Override
-			protected void updateItem(Department department, boolean empty) {
-				super.updateItem(department, empty);
-				if (department == null) {
-					setGraphic(null);
-					return;
-				}
+	// whether the poller will bring in what other workstations changed while the view was hidden
+	public boolean isSynced() {
+		return changePoller != null && changePoller.canResume();
+	}
 
-				setGraphic(button);
-				button.setOnAction(event -> createDialogForm(department, depService, "/gui/DepartmentForm.fxml",
-						Utils.currentStage(event)));
-			}
+	private void removeWriteFailureListener() {
+		if (writeFailureRegistration != null) {
+			writeFailureRegistration.run();
+			writeFailureRegistration = null;
+		}
+	}
+
+	// queued renames that were given up, the table goes back to what the database has
+	private void onWriteFailed(List<Department> rows, RuntimeException error) {
+		Platform.runLater(() -> {
+			Alerts.showAlert("Error saving departments",
+					rows.size() + " changes could not be saved: " + error.getMessage(),
+					Utils.describeRows(rows, dep -> dep.getId() + " " + dep.getName()), AlertType.ERROR);
+			updateTableView();
 		});
 	}
 
-	public void initRemoveButtons() {
-		tableColumnREMOVE.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
-		tableColumnREMOVE.setCellFactory(param -> new TableCell<Department, Department>() {
-			private final Button button = new Button("remove");
-
-			@Override
-			protected void updateItem(Department department, boolean empty) {
-				super.updateItem(department, empty);
-				if (department == null) {
-					setGraphic(null);
-					return;
-				}
+	public void initEditButtons() {
+		Utils.buttonTableColumn(tableColumnEDIT, "edit", this::openForm);
+	}
 
-				setGraphic(button);
-				button.setOnAction(event -> removeEntity(department));
-			}
-		});
+	public void initRemoveButtons() {
+		Utils.buttonTableColumn(tableColumnREMOVE, "remove", this::removeEntity);
 	}
 
 	private void removeEntity(Department department) {
@@ -120,12 +140,14 @@ public class DepartmentListController implements Initializable, DataChangeListen
 			if (depService == null) {
 				throw new IllegalStateException("Service was null");
 			}
-			try {
-				depService.remove(department);
-				updateTableView();
-			} catch (DbException e) {
-				Alerts.showAlert("Error removing object", null, e.getMessage(), AlertType.ERROR);
-			}
+			depService.removeAsync(department).whenCompleteAsync((removed, error) -> {
+				if (error != null) {
+					Alerts.showAlert("Error removing object", null, Utils.unwrap(error).getMessage(),
+							AlertType.ERROR);
+				} else {
+					onDataChanged(DataChangeEvent.deleted(Department.class, department.getId()));
+				}
+			}, Utils.FX_THREAD);
 		}
 	}
 
@@ -133,39 +155,79 @@ public class DepartmentListController implements Initializable, DataChangeListen
 		if (depService == null) {
 			throw new IllegalStateException("Service was null");
 		}
-		List<Department> list = depService.findAll();
-		obsList = FXCollections.observableArrayList(list);
-		tableViewDepartment.setItems(obsList);
-		initEditButtons();
-		initRemoveButtons();
+		Utils.setLoading(tableViewDepartment, true);
+		tableViewDepartment.setItems(FXCollections.observableArrayList());
+		depService.findAllAsync().whenCompleteAsync((list, error) -> {
+			Utils.setLoading(tableViewDepartment, false);
+			if (error != null) {
+				Alerts.showAlert("Error loading departments", null, Utils.unwrap(error).getMessage(),
+						AlertType.ERROR);
+				return;
+			}
+			obsList = FXCollections.observableArrayList(list);
+			tableViewDepartment.setItems(obsList);
+		}, Utils.FX_THREAD);
 	}
 
-	private void createDialogForm(Department dep, DepartmentService service, String absolutePath, Stage parentStage) {
-		try {
-			FXMLLoader loader = new FXMLLoader(getClass().getResource(absolutePath));
-			Pane pane = loader.load();
-
-			DepartmentFormController formController = loader.getController();
-			formController.setDepartment(dep);
-			formController.setDepartmentService(service);
-			formController.subscribeDataChangeListener(this);
-			formController.updateFormData();
-
-			Stage dialogStage = new Stage();
-			dialogStage.setTitle("Enter department data");
-			dialogStage.setScene(new Scene(pane));
-			dialogStage.setResizable(false);
-			dialogStage.initOwner(parentStage);
-			dialogStage.initModality(Modality.WINDOW_MODAL);
-			dialogStage.showAndWait();
-		} catch (IOException e) {
-			Alerts.showAlert("IO Exception", "Error loading view", e.getMessage(), AlertType.ERROR);
-		}
+	private void openForm(Department dep) {
+		formDialog.showAndWait(form -> {
+			form.setDepartment(dep);
+			form.updateFormData();
+		});
+	}
+
+	public void preloadForm() {
+		formDialog.preload();
 	}
 
 	@Override
-	public void onDataChanged() {
-		updateTableView();
+	public void onDataChanged(DataChangeEvent<?> event) {
+		if (obsList == null || !event.concerns(Department.class)) {
+			return;
+		}
+
+		Department selected = tableViewDepartment.getSelectionModel().getSelectedItem();
+		DataChangeEvent<Department> depEvent = event.as(Department.class);
+
+		switch (depEvent.getType()) {
+		case INSERT:
+			obsList.addAll(depEvent.getEntities());
+			break;
+		case UPDATE:
+			for (Department dep : depEvent.getEntities()) {
+				int index = indexOf(dep.getId());
+				if (index >= 0) {
+					obsList.set(index, dep);
+				} else {
+					obsList.add(dep);
+				}
+			}
+			break;
+		case DELETE:
+			for (Integer id : depEvent.getIds()) {
+				int index = indexOf(id);
+				if (index >= 0) {
+					obsList.remove(index);
+				}
+			}
+			break;
+		}
+
+		if (selected != null) {
+			int index = indexOf(selected.getId());
+			if (index >= 0) {
+				tableViewDepartment.getSelectionModel().select(index);
+			}
+		}
+	}
+
+	private int indexOf(Integer id) {
+		for (int i = 0; i < obsList.size(); i++) {
+			if (obsList.get(i).getId().equals(id)) {
+				return i;
+			}
+		}
+		return -1;
 	}
 
 }
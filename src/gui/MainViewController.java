@@ -2,11 +2,20 @@ package gui;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
 
 import application.Main;
+import application.Startup;
+import db.DB;
 import gui.util.Alerts;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -16,7 +25,11 @@ import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.VBox;
+import model.entities.Department;
+import model.entities.Seller;
+import model.services.DataVersion;
 import model.services.DepartmentService;
+import model.services.ReportService;
 import model.services.SellerService;
 
 public class MainViewController implements Initializable {
@@ -26,52 +39,173 @@ public class MainViewController implements Initializable {
 	@FXML
 	private MenuItem menuItemDepartment;
 	@FXML
+	private MenuItem menuItemReports;
+	@FXML
 	private MenuItem menuItemAbout;
 
+	// one service per kind for the life of the window, shared by the cached views
+	private final SellerService sellerService = new SellerService();
+	private final DepartmentService departmentService = new DepartmentService();
+	private final ReportService reportService = new ReportService();
+
+	private Startup startup;
+
+	// views are parsed once and keep their controllers, keyed by the fxml path
+	private final Map<String, CachedView<?>> views = new HashMap<>();
+
 	@Override
 	public void initialize(URL url, ResourceBundle rb) {
 
 	}
 
+	public void setStartup(Startup startup) {
+		this.startup = startup;
+	}
+
 	@FXML
 	public void onMenuItemSellerAction() {
-		loadView("/gui/SellerList.fxml", (SellerListController controller) -> {
-			controller.setSellerService(new SellerService());
-			controller.updateTableView();
-		});
+		showView(sellerListView());
 	}
 
 	@FXML
 	public void onMenuItemDepartmentAction() {
-		loadView("/gui/DepartmentList.fxml", (DepartmentListController controller) -> {
-			controller.setDepartmentService(new DepartmentService());
-			controller.updateTableView();
-		});
+		showView(departmentListView());
+	}
+
+	@FXML
+	public void onMenuItemReportsAction() {
+		showView(reportsView());
 	}
 
 	@FXML
 	public void onMenuItemAboutAction() {
-		loadView("/gui/About.fxml", x -> {
+		showView(aboutView());
+	}
+
+	// called once the window is up, one view or form per event so the window stays responsive,
+	// view.preload=false turns it off
+	public void preloadViews() {
+		if ("false".equalsIgnoreCase(DB.getProperties().getProperty("view.preload"))) {
+			return;
+		}
+		Platform.runLater(this::sellerListView);
+		Platform.runLater(this::departmentListView);
+		Platform.runLater(this::reportsView);
+		Platform.runLater(this::aboutView);
+		Platform.runLater(() -> {
+			CachedView<SellerListController> view = sellerListView();
+			if (view != null) {
+				view.controller.preloadForm();
+			}
+		});
+		Platform.runLater(() -> {
+			CachedView<DepartmentListController> view = departmentListView();
+			if (view != null) {
+				view.controller.preloadForm();
+			}
 		});
 	}
 
-	private synchronized <T> void loadView(String absolutePath, Consumer<T> initAction) {
+	private CachedView<SellerListController> sellerListView() {
+		return loadView("/gui/SellerList.fxml", controller -> {
+			controller.setSellerService(sellerService);
+			if (startup != null) {
+				controller.setFirstPage(startup.takeFirstSellerPage());
+			}
+		}, SellerListController::updateTableView, SellerListController::isSynced,
+				() -> DataVersion.current(Seller.class, Department.class));
+	}
+
+	private CachedView<DepartmentListController> departmentListView() {
+		return loadView("/gui/DepartmentList.fxml", controller -> controller.setDepartmentService(departmentService),
+				DepartmentListController::updateTableView, DepartmentListController::isSynced,
+				() -> DataVersion.current(Department.class));
+	}
+
+	private CachedView<ReportsController> reportsView() {
+		// nothing tells the reports what other workstations wrote, they are recomputed on every show
+		return loadView("/gui/Reports.fxml", controller -> controller.setReportService(reportService),
+				ReportsController::updateTableView, controller -> false, DataVersion::current);
+	}
+
+	private CachedView<Object> aboutView() {
+		return loadView("/gui/About.fxml", x -> {
+		}, x -> {
+		}, x -> true, () -> 0);
+	}
+
+	private void showView(CachedView<?> view) {
+		if (view == null) {
+			return;
+		}
+		// a cached view reloads its data when what it shows was written here since it last loaded, or when
+		// it cannot catch up on other workstations' changes by polling
+		view.refreshIfStale();
+
+		Scene mainScene = Main.getMainScene();
+		VBox mainVbox = (VBox) ((ScrollPane) mainScene.getRoot()).getContent();
+
+		Node mainMenu = mainVbox.getChildren().get(0);
+		mainVbox.getChildren().clear();
+		mainVbox.getChildren().add(mainMenu);
+		mainVbox.getChildren().addAll(view.nodes);
+	}
+
+	@SuppressWarnings("unchecked")
+	private synchronized <T> CachedView<T> loadView(String absolutePath, Consumer<T> initAction,
+			Consumer<T> refreshAction, Predicate<T> synced, LongSupplier dataVersion) {
+		CachedView<T> view = (CachedView<T>) views.get(absolutePath);
+		if (view != null) {
+			return view;
+		}
 		try {
 			FXMLLoader loader = new FXMLLoader(getClass().getResource(absolutePath));
 			VBox newVbox = loader.load();
 
-			Scene mainScene = Main.getMainScene();
-			VBox mainVbox = (VBox) ((ScrollPane) mainScene.getRoot()).getContent();
-
-			Node mainMenu = mainVbox.getChildren().get(0);
-			mainVbox.getChildren().clear();
-			mainVbox.getChildren().add(mainMenu);
-			mainVbox.getChildren().addAll(newVbox.getChildren());
-
 			T controller = loader.getController();
 			initAction.accept(controller);
+			view = new CachedView<>(new ArrayList<>(newVbox.getChildren()), controller, refreshAction, synced,
+					dataVersion);
+			view.refresh();
+			views.put(absolutePath, view);
+			return view;
 		} catch (IOException e) {
 			Alerts.showAlert("IOException", "Error loading view", e.getMessage(), AlertType.ERROR);
+			return null;
+		}
+	}
+
+	private static class CachedView<T> {
+
+		private final List<Node> nodes;
+		private final T controller;
+		private final Consumer<T> refreshAction;
+		private final Predicate<T> synced;
+		// the DataVersion of the types the view shows
+		private final LongSupplier dataVersion;
+		private long version;
+		// the data loaded by a preload is still fresh the first time the view is shown
+		private boolean shown;
+
+		CachedView(List<Node> nodes, T controller, Consumer<T> refreshAction, Predicate<T> synced,
+				LongSupplier dataVersion) {
+			this.nodes = nodes;
+			this.controller = controller;
+			this.refreshAction = refreshAction;
+			this.synced = synced;
+			this.dataVersion = dataVersion;
+		}
+
+		void refresh() {
+			version = dataVersion.getAsLong();
+			refreshAction.accept(controller);
+		}
+
+		void refreshIfStale() {
+			if (version != dataVersion.getAsLong() || (shown && !synced.test(controller))) {
+				refresh();
+			}
+			shown = true;
 		}
 	}
 
@@ -0,0 +1,111 @@
+package gui;
+
+import java.net.URL;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+
+import application.Main;
+import gui.util.Alerts;
+import gui.util.Utils;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.Button;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.Stage;
+import model.entities.DepartmentReport;
+import model.services.ReportService;
+
+public class ReportsController implements Initializable {
+
+	private ReportService service;
+
+	@FXML
+	private TableView<DepartmentReport> tableViewReport;
+	@FXML
+	private TableColumn<DepartmentReport, String> tableColumnDepartment;
+	@FXML
+	private TableColumn<DepartmentReport, Integer> tableColumnHeadcount;
+	@FXML
+	private TableColumn<DepartmentReport, Double> tableColumnTotalSalary;
+	@FXML
+	private TableColumn<DepartmentReport, Double> tableColumnAvgSalary;
+	@FXML
+	private TableColumn<DepartmentReport, Double> tableColumnMinSalary;
+	@FXML
+	private TableColumn<DepartmentReport, Double> tableColumnMaxSalary;
+	@FXML
+	private TableColumn<DepartmentReport, Integer> tableColumnUnder30;
+	@FXML
+	private TableColumn<DepartmentReport, Integer> tableColumnFrom30To39;
+	@FXML
+	private TableColumn<DepartmentReport, Integer> tableColumnFrom40To49;
+	@FXML
+	private TableColumn<DepartmentReport, Integer> tableColumnFrom50;
+	@FXML
+	private Button btRefresh;
+
+	public void setReportService(ReportService service) {
+		this.service = service;
+	}
+
+	@FXML
+	public void onBtRefreshAction() {
+		if (service == null) {
+			throw new IllegalStateException("Service was null");
+		}
+		show(service.reloadDepartmentSalariesAsync());
+	}
+
+	@Override
+	public void initialize(URL url, ResourceBundle rb) {
+		initializeNodes();
+	}
+
+	private void initializeNodes() {
+		tableColumnDepartment.setCellValueFactory(new PropertyValueFactory<>("departmentName"));
+		tableColumnHeadcount.setCellValueFactory(new PropertyValueFactory<>("headcount"));
+		tableColumnTotalSalary.setCellValueFactory(new PropertyValueFactory<>("totalSalary"));
+		Utils.formatTableColumnDouble(tableColumnTotalSalary, 2);
+		tableColumnAvgSalary.setCellValueFactory(new PropertyValueFactory<>("avgSalary"));
+		Utils.formatTableColumnDouble(tableColumnAvgSalary, 2);
+		tableColumnMinSalary.setCellValueFactory(new PropertyValueFactory<>("minSalary"));
+		Utils.formatTableColumnDouble(tableColumnMinSalary, 2);
+		tableColumnMaxSalary.setCellValueFactory(new PropertyValueFactory<>("maxSalary"));
+		Utils.formatTableColumnDouble(tableColumnMaxSalary, 2);
+		tableColumnUnder30.setCellValueFactory(new PropertyValueFactory<>("under30"));
+		tableColumnFrom30To39.setCellValueFactory(new PropertyValueFactory<>("from30To39"));
+		tableColumnFrom40To49.setCellValueFactory(new PropertyValueFactory<>("from40To49"));
+		tableColumnFrom50.setCellValueFactory(new PropertyValueFactory<>("from50"));
+
+		Stage stage = (Stage) Main.getMainScene().getWindow();
+		tableViewReport.prefHeightProperty().bind(stage.heightProperty());
+	}
+
+	public void updateTableView() {
+		if (service == null) {
+			throw new IllegalStateException("Service was null");
+		}
+		show(service.findDepartmentSalariesAsync());
+	}
+
+	private void show(CompletableFuture<List<DepartmentReport>> report) {
+		Utils.setLoading(tableViewReport, true);
+		tableViewReport.setItems(FXCollections.observableArrayList());
+		btRefresh.setDisable(true);
+		report.whenCompleteAsync((list, error) -> {
+			Utils.setLoading(tableViewReport, false);
+			btRefresh.setDisable(false);
+			if (error != null) {
+				Alerts.showAlert("Error loading report", null, Utils.unwrap(error).getMessage(), AlertType.ERROR);
+				return;
+			}
+			tableViewReport.setItems(FXCollections.observableArrayList(list));
+		}, Utils.FX_THREAD);
+	}
+
+}
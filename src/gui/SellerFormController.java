@@ -1,18 +1,17 @@
 package gui;
 
 import java.net.URL;
-import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
 
-import db.DbException;
+import gui.listeners.DataChangeEvent;
 import gui.listeners.DataChangeListener;
 import gui.util.Alerts;
 import gui.util.Constraints;
@@ -31,12 +30,14 @@ import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.GridPane;
+import javafx.stage.Stage;
 import javafx.util.Callback;
 import model.entities.Department;
 import model.entities.Seller;
 import model.exceptions.ValidationException;
 import model.services.DepartmentService;
 import model.services.SellerService;
+import model.services.SellerValidator;
 
 public class SellerFormController implements Initializable {
 
@@ -74,15 +75,42 @@ public class SellerFormController implements Initializable {
 	@FXML
 	private Button btnCancel;
 
+	private List<Department> departments;
 	private ObservableList<Department> obsList;
 
 	public void loadAssociateObjects() {
 		if (depService == null) {
 			throw new IllegalStateException("Department Service was null");
 		}
-		List<Department> list = depService.findAll();
-		obsList = FXCollections.observableArrayList(list);
-		comboBoxDepartment.setItems(obsList);
+		// a reopened form takes the cached list in the same frame, only the first open may wait for the query
+		if (depService.isCacheLoaded()) {
+			setDepartments(depService.findAll());
+			return;
+		}
+		comboBoxDepartment.setDisable(true);
+		comboBoxDepartment.setPromptText("Loading...");
+		depService.findAllAsync().whenCompleteAsync((list, error) -> {
+			comboBoxDepartment.setDisable(false);
+			comboBoxDepartment.setPromptText(null);
+			if (error != null) {
+				Alerts.showAlert("Error loading departments", null, Utils.unwrap(error).getMessage(),
+						AlertType.ERROR);
+				return;
+			}
+			setDepartments(list);
+		}, Utils.FX_THREAD);
+	}
+
+	// the cache hands out the same list until a department changes, so the items are only rebuilt then
+	private void setDepartments(List<Department> list) {
+		if (list != departments) {
+			departments = list;
+			obsList = FXCollections.observableArrayList(list);
+			comboBoxDepartment.setItems(obsList);
+		}
+		if (seller != null) {
+			selectDepartment();
+		}
 	}
 
 	public void setSeller(Seller seller) {
@@ -95,7 +123,9 @@ public class SellerFormController implements Initializable {
 	}
 
 	public void subscribeDataChangeListener(DataChangeListener listener) {
-		dataChangeListeners.add(listener);
+		if (!dataChangeListeners.contains(listener)) {
+			dataChangeListeners.add(listener);
+		}
 	}
 
 	@FXML
@@ -106,64 +136,38 @@ public class SellerFormController implements Initializable {
 		if (service == null) {
 			throw new IllegalStateException("Service was null");
 		}
+		boolean isNew = seller.getId() == null;
 		try {
 			seller = getFormData();
-			service.saveOrUpdate(seller);
-			notifyDataChangeListeners();
-			Utils.currentStage(event).close();
 		} catch (ValidationException e) {
 			setErrorMessages(e.getErrors());
-		} catch (DbException e) {
-			Alerts.showAlert("Error saving object", null, e.getMessage(), AlertType.ERROR);
+			return;
 		}
+		Stage stage = Utils.currentStage(event);
+		Seller saved = seller;
+		btnSave.setDisable(true);
+		service.saveOrUpdateAsync(saved).whenCompleteAsync((result, error) -> {
+			btnSave.setDisable(false);
+			if (error != null) {
+				Alerts.showAlert("Error saving object", null, Utils.unwrap(error).getMessage(), AlertType.ERROR);
+				return;
+			}
+			notifyDataChangeListeners(isNew ? DataChangeEvent.inserted(Seller.class, saved)
+					: DataChangeEvent.updated(Seller.class, saved));
+			stage.close();
+		}, Utils.FX_THREAD);
 	}
 
-	private void notifyDataChangeListeners() {
+	private void notifyDataChangeListeners(DataChangeEvent<?> event) {
 		for (DataChangeListener listener : dataChangeListeners) {
-			listener.onDataChanged();
+			listener.onDataChanged(event);
 		}
 	}
 
 	private Seller getFormData() {
-		ValidationException exception = new ValidationException("Validation Exception");
-		Seller seller = new Seller();
-		seller.setId(Utils.tryParseToInt((txtFieldId.getText())));
-
-		// name field
-		if (txtFieldName.getText() == null || txtFieldName.getText().trim().equals("")) {
-			exception.addError("name", "Field is empty");
-		}
-		seller.setName(txtFieldName.getText());
-
-		// email field
-		if (txtFieldEmail.getText() == null || txtFieldEmail.getText().trim().equals("")) {
-			exception.addError("email", "Field is empty");
-		}
-		seller.setEmail(txtFieldEmail.getText());
-
-		// birth date field
-		if (datePickerBirthDate.getValue() == null) {
-			exception.addError("birthDate", "Field is empty");
-		} else {
-			Instant instant = Instant.from(datePickerBirthDate.getValue().atStartOfDay(ZoneId.systemDefault()));
-			seller.setBirthDate(Date.from(instant));
-		}
-
-		// base salary field
-		if (txtFieldBaseSalary.getText() == null || txtFieldBaseSalary.getText().trim().equals("")) {
-			exception.addError("baseSalary", "Field is empty");
-		}
-		seller.setBaseSalary(Utils.tryParseToDouble(txtFieldBaseSalary.getText()));
-
-		if (comboBoxDepartment.getValue() == null) {
-			exception.addError("department", "Field is empty");
-		}
-		seller.setDepartment(comboBoxDepartment.getValue());
-
-		if (exception.getErrors().size() > 0) {
-			throw exception;
-		}
-		return seller;
+		return SellerValidator.validate(Utils.tryParseToInt(txtFieldId.getText()), txtFieldName.getText(),
+				txtFieldEmail.getText(), datePickerBirthDate.getValue(), txtFieldBaseSalary.getText(),
+				comboBoxDepartment.getValue());
 	}
 
 	@FXML
@@ -178,9 +182,9 @@ public class SellerFormController implements Initializable {
 
 	private void initializeNodes() {
 		Constraints.setTextFieldInteger(txtFieldId);
-		Constraints.setTextFieldMaxLength(txtFieldName, 30);
+		Constraints.setTextFieldMaxLength(txtFieldName, SellerValidator.NAME_MAX_LENGTH);
 		Constraints.setTextFieldDouble(txtFieldBaseSalary);
-		Constraints.setTextFieldMaxLength(txtFieldEmail, 60);
+		Constraints.setTextFieldMaxLength(txtFieldEmail, SellerValidator.EMAIL_MAX_LENGTH);
 		Utils.formatDatePicker(datePickerBirthDate, "dd/MM/yyyy");
 		initializeComboBoxDepartment();
 	}
@@ -193,11 +197,16 @@ public class SellerFormController implements Initializable {
 		txtFieldName.setText(seller.getName());
 		txtFieldEmail.setText(seller.getEmail());
 		Locale.setDefault(Locale.US);
-		if (seller.getBirthDate() != null) {
-			datePickerBirthDate
-					.setValue(LocalDate.ofInstant(seller.getBirthDate().toInstant(), ZoneId.systemDefault()));
-		}
+		// the form is reused, so every field is set even when the seller has no value for it
+		datePickerBirthDate.setValue(seller.getBirthDate() == null ? null
+				: LocalDate.ofInstant(seller.getBirthDate().toInstant(), ZoneId.systemDefault()));
 		txtFieldBaseSalary.setText(String.format("%.2f", seller.getBaseSalary()));
+		selectDepartment();
+		setErrorMessages(Collections.emptyMap());
+		btnSave.setDisable(false);
+	}
+
+	private void selectDepartment() {
 		if (seller.getDepartment() == null) {
 			comboBoxDepartment.getSelectionModel().selectFirst();
 		} else {
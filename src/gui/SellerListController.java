@@ -1,35 +1,47 @@
 package gui;
 
-import java.io.IOException;
 import java.net.URL;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import application.Main;
-import db.DbException;
+import db.QueryCancellation;
+import gui.listeners.DataChangeEvent;
 import gui.listeners.DataChangeListener;
 import gui.util.Alerts;
+import gui.util.ChangePoller;
+import gui.util.FormDialog;
 import gui.util.Utils;
-import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
-import javafx.scene.control.TableCell;
+import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableRow;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.layout.Pane;
-import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
+import javafx.util.Duration;
+import model.dao.SellerQuery;
 import model.entities.Department;
 import model.entities.Seller;
 import model.services.DepartmentService;
@@ -37,8 +49,35 @@ import model.services.SellerService;
 
 public class SellerListController implements Initializable, DataChangeListener {
 
+	public static final int PAGE_SIZE = 100;
+	private static final int SEARCH_DEBOUNCE_MILLIS = 250;
+	// same order as SellerDao.findPage, so patched rows land where a reload would put them; MySQL's default
+	// collations ignore case and accents, which is what a primary strength Collator compares
+	private static final Comparator<Seller> PAGE_ORDER = Comparator
+			.comparing(Seller::getName, nameCollator()).thenComparing(Seller::getId);
+
 	private SellerService sellerService;
+	// removes onWriteFailed from the service's queue, which outlives this view
+	private Runnable writeFailureRegistration;
+	private ChangePoller<Seller> changePoller;
+	// read during startup, stands in for the first unfiltered page once
+	private CompletableFuture<List<Seller>> firstPage;
+	// built once and reused for every new and edit, only its data is reset per show
+	private final FormDialog<SellerFormController> formDialog = new FormDialog<>("/gui/SellerForm.fxml",
+			"Enter seller data", form -> {
+				form.setServices(sellerService, new DepartmentService());
+				form.subscribeDataChangeListener(this);
+				// warms the department cache while the form is not yet needed
+				form.loadAssociateObjects();
+			});
 	private ObservableList<Seller> obsList;
+	private int totalCount = -1;
+	private boolean lastPageLoaded;
+	private boolean pageRequested;
+	private CompletableFuture<List<Seller>> pageInFlight;
+	// the search statement behind pageInFlight, cancelled on the server when the search changes
+	private QueryCancellation searchInFlight;
+	private PauseTransition searchDebounce;
 
 	@FXML
 	private TableView<Seller> tableViewSeller;
@@ -60,12 +99,14 @@ public class SellerListController implements Initializable, DataChangeListener {
 	private TableColumn<Seller, Seller> tableColumnREMOVE;
 	@FXML
 	private Button btNew;
+	@FXML
+	private Label labelCount;
+	@FXML
+	private TextField txtSearch;
 
 	@FXML
 	public void onBtNewAction(ActionEvent event) {
-		Stage parentStage = Utils.currentStage(event);
-		Seller seller = new Seller();
-		createDialogForm(seller, sellerService, "/gui/SellerForm.fxml", parentStage);
+		openForm(new Seller());
 	}
 
 	@Override
@@ -83,53 +124,92 @@ public class SellerListController implements Initializable, DataChangeListener {
 		Utils.formatTableColumnDate(tableColumnBirthDate, "dd/MM/yyyy");
 		Utils.formatTableColumnDouble(tableColumnBaseSalary, 2);
 		Utils.formatTableColumnDepartment(tableColumnDepartment);
+		initEditButtons();
+		initRemoveButtons();
+
+		// rows coming into view near the end of what is loaded pull in the next page
+		tableViewSeller.setRowFactory(tv -> new TableRow<Seller>() {
+			@Override
+			public void updateIndex(int index) {
+				super.updateIndex(index);
+				if (obsList != null && index >= 0 && index >= obsList.size() - PAGE_SIZE / 4) {
+					requestNextPage();
+				}
+			}
+		});
+
+		// a new query only goes out once typing pauses
+		searchDebounce = new PauseTransition(Duration.millis(SEARCH_DEBOUNCE_MILLIS));
+		searchDebounce.setOnFinished(event -> {
+			if (sellerService != null) {
+				updateTableView();
+			}
+		});
+		txtSearch.textProperty().addListener((obs, oldValue, newValue) -> searchDebounce.playFromStart());
+
+		// only poll for other users' changes while the table is on screen
+		tableViewSeller.sceneProperty().addListener((obs, oldScene, newScene) -> {
+			if (changePoller == null) {
+				return;
+			}
+			if (newScene == null) {
+				changePoller.stop();
+			} else {
+				changePoller.start();
+			}
+		});
 
 		Stage stage = (Stage) Main.getMainScene().getWindow();
 		tableViewSeller.prefHeightProperty().bind(stage.heightProperty());
+		// the cached views go with the main window
+		stage.addEventHandler(WindowEvent.WINDOW_HIDDEN, event -> removeWriteFailureListener());
+
+	}
 
+	public void setFirstPage(CompletableFuture<List<Seller>> firstPage) {
+		this.firstPage = firstPage;
 	}
 
 	public void setSellerService(SellerService sellerService) {
 		this.sellerService = sellerService;
+		if (changePoller != null) {
+			changePoller.stop();
+		}
+		changePoller = new ChangePoller<>(Seller.class, sellerService::findModifiedSince, this);
+		if (tableViewSeller.getScene() != null) {
+			changePoller.start();
+		}
+		removeWriteFailureListener();
+		writeFailureRegistration = sellerService.addWriteFailureListener(this::onWriteFailed);
 	}
 
-	public void initEditButtons() {
-		tableColumnEDIT.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
-		tableColumnEDIT.setCellFactory(param -> new TableCell<Seller, Seller>() {
-			private final Button button = new Button("edit");
+	// whether the poller will bring in what other workstations changed while the view was hidden
+	public boolean isSynced() {
+		return changePoller != null && changePoller.canResume();
+	}
 
-			@Override
-			protected void updateItem(Seller seller, boolean empty) {
-				super.updateItem(seller, empty);
-				if (seller == null) {
-					setGraphic(null);
-					return;
-				}
+	private void removeWriteFailureListener() {
+		if (writeFailureRegistration != null) {
+			writeFailureRegistration.run();
+			writeFailureRegistration = null;
+		}
+	}
 
-				setGraphic(button);
-				button.setOnAction(event -> createDialogForm(seller, sellerService, "/gui/SellerForm.fxml",
-						Utils.currentStage(event)));
-			}
+	// queued updates that were given up, the table goes back to what the database has
+	private void onWriteFailed(List<Seller> rows, RuntimeException error) {
+		Platform.runLater(() -> {
+			Alerts.showAlert("Error saving sellers", rows.size() + " changes could not be saved: " + error.getMessage(),
+					Utils.describeRows(rows, seller -> seller.getId() + " " + seller.getName()), AlertType.ERROR);
+			updateTableView();
 		});
 	}
 
-	public void initRemoveButtons() {
-		tableColumnREMOVE.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
-		tableColumnREMOVE.setCellFactory(param -> new TableCell<Seller, Seller>() {
-			private final Button button = new Button("remove");
-
-			@Override
-			protected void updateItem(Seller seller, boolean empty) {
-				super.updateItem(seller, empty);
-				if (seller == null) {
-					setGraphic(null);
-					return;
-				}
+	public void initEditButtons() {
+		Utils.buttonTableColumn(tableColumnEDIT, "edit", this::openForm);
+	}
 
-				setGraphic(button);
-				button.setOnAction(event -> removeEntity(seller));
-			}
-		});
+	public void initRemoveButtons() {
+		Utils.buttonTableColumn(tableColumnREMOVE, "remove", this::removeEntity);
 	}
 
 	private void removeEntity(Seller seller) {
@@ -138,12 +218,14 @@ public class SellerListController implements Initializable, DataChangeListener {
 			if (sellerService == null) {
 				throw new IllegalStateException("Service was null");
 			}
-			try {
-				sellerService.remove(seller);
-				updateTableView();
-			} catch (DbException e) {
-				Alerts.showAlert("Error removing object", null, e.getMessage(), AlertType.ERROR);
-			}
+			sellerService.removeAsync(seller).whenCompleteAsync((removed, error) -> {
+				if (error != null) {
+					Alerts.showAlert("Error removing object", null, Utils.unwrap(error).getMessage(),
+							AlertType.ERROR);
+				} else {
+					onDataChanged(DataChangeEvent.deleted(Seller.class, seller.getId()));
+				}
+			}, Utils.FX_THREAD);
 		}
 	}
 
@@ -151,40 +233,237 @@ public class SellerListController implements Initializable, DataChangeListener {
 		if (sellerService == null) {
 			throw new IllegalStateException("Service was null");
 		}
-		List<Seller> list = sellerService.findAll();
-		obsList = FXCollections.observableArrayList(list);
-		tableViewSeller.setItems(obsList);
-		initEditButtons();
-		initRemoveButtons();
+		if (pageInFlight != null) {
+			pageInFlight.cancel(false);
+		}
+		if (searchInFlight != null) {
+			searchInFlight.cancel();
+			searchInFlight = null;
+		}
+		ObservableList<Seller> list = FXCollections.observableArrayList();
+		obsList = list;
+		lastPageLoaded = false;
+		pageRequested = false;
+		totalCount = -1;
+		tableViewSeller.setItems(list);
+		Utils.setLoading(tableViewSeller, true);
+
+		refreshCount();
+		loadNextPage();
+	}
+
+	private void requestNextPage() {
+		if (lastPageLoaded || pageRequested) {
+			return;
+		}
+		pageRequested = true;
+		// never touch the items while the table is laying out its rows
+		Platform.runLater(this::loadNextPage);
+	}
+
+	private void loadNextPage() {
+		if (lastPageLoaded) {
+			pageRequested = false;
+			return;
+		}
+		pageRequested = true;
+		labelCount.setText("Loading...");
+
+		ObservableList<Seller> list = obsList;
+		Seller last = list.isEmpty() ? null : list.get(list.size() - 1);
+		pageInFlight = fetchPage(last);
+		pageInFlight.whenCompleteAsync((page, error) -> {
+			if (list != obsList) {
+				// the table was reloaded or the search changed while this page was in flight
+				return;
+			}
+			pageRequested = false;
+			Utils.setLoading(tableViewSeller, false);
+			if (error != null) {
+				updateCountLabel();
+				Alerts.showAlert("Error loading sellers", null, Utils.unwrap(error).getMessage(), AlertType.ERROR);
+				return;
+			}
+			lastPageLoaded = page.size() < PAGE_SIZE;
+			list.addAll(page);
+			updateCountLabel();
+		}, Utils.FX_THREAD);
+	}
+
+	private CompletableFuture<List<Seller>> fetchPage(Seller last) {
+		SellerQuery query = searchQuery();
+		if (query == null && last == null && firstPage != null) {
+			CompletableFuture<List<Seller>> page = firstPage;
+			firstPage = null;
+			// a failed startup read is simply retried
+			return page.handle((rows, error) -> rows).thenCompose(rows -> rows != null
+					? CompletableFuture.completedFuture(rows) : sellerService.findPageAsync(null, PAGE_SIZE));
+		}
+		if (query == null) {
+			return sellerService.findPageAsync(last, PAGE_SIZE);
+		}
+		if (last != null) {
+			query.setAfter(last.getName(), last.getId());
+		}
+		query.setLimit(PAGE_SIZE);
+		searchInFlight = new QueryCancellation();
+		query.setCancellation(searchInFlight);
+		return sellerService.searchAsync(query);
+	}
+
+	private SellerQuery searchQuery() {
+		String text = searchText();
+		if (text.isEmpty()) {
+			return null;
+		}
+		SellerQuery query = new SellerQuery();
+		if (text.contains("@")) {
+			query.setEmailPrefix(text);
+		} else {
+			query.setNamePrefix(text);
+		}
+		return query;
 	}
 
-	private void createDialogForm(Seller seller, SellerService service, String absolutePath, Stage parentStage) {
-		try {
-			FXMLLoader loader = new FXMLLoader(getClass().getResource(absolutePath));
-			Pane pane = loader.load();
+	private String searchText() {
+		return txtSearch.getText() == null ? "" : txtSearch.getText().trim();
+	}
 
-			SellerFormController formController = loader.getController();
-			formController.setSeller(seller);
-			formController.setServices(new SellerService(), new DepartmentService());
-			formController.loadAssociateObjects();
-			formController.subscribeDataChangeListener(this);
-			formController.updateFormData();
+	private boolean matchesSearch(Seller seller) {
+		String text = searchText().toLowerCase(Locale.ROOT);
+		if (text.isEmpty()) {
+			return true;
+		}
+		String value = text.contains("@") ? seller.getEmail() : seller.getName();
+		return value != null && value.toLowerCase(Locale.ROOT).startsWith(text);
+	}
 
-			Stage dialogStage = new Stage();
-			dialogStage.setTitle("Enter department data");
-			dialogStage.setScene(new Scene(pane));
-			dialogStage.setResizable(false);
-			dialogStage.initOwner(parentStage);
-			dialogStage.initModality(Modality.WINDOW_MODAL);
-			dialogStage.showAndWait();
-		} catch (IOException e) {
-			Alerts.showAlert("IO Exception", "Error loading view", e.getMessage(), AlertType.ERROR);
+	private void updateCountLabel() {
+		if (!searchText().isEmpty()) {
+			labelCount.setText(obsList.size() + (lastPageLoaded ? "" : "+") + " matching sellers");
+		} else if (totalCount < 0) {
+			labelCount.setText(obsList.size() + " sellers");
+		} else {
+			labelCount.setText(obsList.size() + " of " + totalCount + " sellers");
 		}
 	}
 
+	// the department list comes from the cache when it is loaded, so the form opens without a query
+	private void openForm(Seller seller) {
+		formDialog.showAndWait(form -> {
+			form.setSeller(seller);
+			form.loadAssociateObjects();
+			form.updateFormData();
+		});
+	}
+
+	public void preloadForm() {
+		formDialog.preload();
+	}
+
 	@Override
-	public void onDataChanged() {
-		updateTableView();
+	public void onDataChanged(DataChangeEvent<?> event) {
+		if (obsList == null) {
+			return;
+		}
+		if (event.concerns(Department.class)) {
+			// sellers share the cached department instances, a repaint picks up renames
+			tableViewSeller.refresh();
+			return;
+		}
+		if (!event.concerns(Seller.class)) {
+			return;
+		}
+
+		Seller selected = tableViewSeller.getSelectionModel().getSelectedItem();
+		DataChangeEvent<Seller> sellerEvent = event.as(Seller.class);
+
+		boolean countStale = false;
+		switch (sellerEvent.getType()) {
+		case INSERT:
+			for (Seller seller : sellerEvent.getEntities()) {
+				insertSorted(seller);
+				if (totalCount >= 0) {
+					totalCount++;
+				}
+			}
+			break;
+		case UPDATE:
+			Set<Integer> updated = new HashSet<>();
+			for (Seller seller : sellerEvent.getEntities()) {
+				updated.add(seller.getId());
+			}
+			int reloaded = removeByIds(updated);
+			for (Seller seller : sellerEvent.getEntities()) {
+				insertSorted(seller);
+			}
+			// could be new rows from another workstation or ones that are not paged in yet
+			countStale = reloaded < updated.size();
+			break;
+		case DELETE:
+			Set<Integer> deleted = new HashSet<>(sellerEvent.getIds());
+			int removed = removeByIds(deleted);
+			if (totalCount >= removed) {
+				totalCount -= removed;
+			}
+			countStale = removed < deleted.size();
+			break;
+		}
+		if (countStale) {
+			refreshCount();
+		}
+
+		if (selected != null) {
+			for (Seller seller : obsList) {
+				if (seller.getId().equals(selected.getId())) {
+					tableViewSeller.getSelectionModel().select(seller);
+					break;
+				}
+			}
+		}
+		updateCountLabel();
+	}
+
+	private void insertSorted(Seller seller) {
+		if (!matchesSearch(seller)) {
+			return;
+		}
+		int index = Collections.binarySearch(obsList, seller, PAGE_ORDER);
+		if (index < 0) {
+			index = -index - 1;
+		}
+		// rows after the last loaded one arrive with a later page
+		if (index < obsList.size() || lastPageLoaded) {
+			obsList.add(index, seller);
+		}
+	}
+
+	private int removeByIds(Set<Integer> ids) {
+		List<Seller> loaded = new ArrayList<>();
+		for (Seller seller : obsList) {
+			if (ids.contains(seller.getId())) {
+				loaded.add(seller);
+			}
+		}
+		// one list change for all rows, Seller equality is by Id
+		obsList.removeAll(new HashSet<>(loaded));
+		return loaded.size();
+	}
+
+	private static Collator nameCollator() {
+		Collator collator = Collator.getInstance(Locale.ROOT);
+		collator.setStrength(Collator.PRIMARY);
+		return collator;
+	}
+
+	private void refreshCount() {
+		ObservableList<Seller> list = obsList;
+		sellerService.countAsync().whenCompleteAsync((count, error) -> {
+			if (list == obsList && error == null) {
+				totalCount = count;
+				updateCountLabel();
+			}
+		}, Utils.FX_THREAD);
 	}
 
 }
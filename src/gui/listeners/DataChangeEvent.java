@@ -0,0 +1,73 @@
+package gui.listeners;
+
+import java.util.Collections;
+import java.util.List;
+
+public class DataChangeEvent<T> {
+
+	public enum Type {
+		INSERT, UPDATE, DELETE
+	}
+
+	private final Type type;
+	private final Class<T> entityType;
+	private final List<T> entities;
+	private final List<Integer> ids;
+
+	public DataChangeEvent(Type type, Class<T> entityType, List<T> entities, List<Integer> ids) {
+		this.type = type;
+		this.entityType = entityType;
+		this.entities = Collections.unmodifiableList(entities);
+		this.ids = Collections.unmodifiableList(ids);
+	}
+
+	public static <T> DataChangeEvent<T> inserted(Class<T> entityType, T entity) {
+		return new DataChangeEvent<>(Type.INSERT, entityType, Collections.singletonList(entity),
+				Collections.emptyList());
+	}
+
+	public static <T> DataChangeEvent<T> updated(Class<T> entityType, T entity) {
+		return new DataChangeEvent<>(Type.UPDATE, entityType, Collections.singletonList(entity),
+				Collections.emptyList());
+	}
+
+	public static <T> DataChangeEvent<T> deleted(Class<T> entityType, Integer id) {
+		return new DataChangeEvent<>(Type.DELETE, entityType, Collections.emptyList(),
+				Collections.singletonList(id));
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public Class<T> getEntityType() {
+		return entityType;
+	}
+
+	public List<T> getEntities() {
+		return entities;
+	}
+
+	public List<Integer> getIds() {
+		return ids;
+	}
+
+	public boolean concerns(Class<?> type) {
+		return entityType == type;
+	}
+
+	@SuppressWarnings("unchecked")
+	public <E> DataChangeEvent<E> as(Class<E> type) {
+		if (!concerns(type)) {
+			throw new IllegalArgumentException("Event is about " + entityType.getSimpleName());
+		}
+		return (DataChangeEvent<E>) this;
+	}
+
+	@Override
+	public String toString() {
+		return "DataChangeEvent [type=" + type + ", entityType=" + entityType.getSimpleName() + ", entities="
+				+ entities + ", ids=" + ids + "]";
+	}
+
+}
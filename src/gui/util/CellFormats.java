@@ -0,0 +1,123 @@
+package gui.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+// cell text without JavaFX: one formatter per pattern, and the text of recently shown values is reused
+public class CellFormats {
+
+	private static final int CACHE_BITS = 10;
+
+	private static final ConcurrentMap<String, Function<?, String>> FORMATS = new ConcurrentHashMap<>();
+
+	// same text as String.format("%.<n>f", value) in the default locale
+	@SuppressWarnings("unchecked")
+	public static Function<Double, String> decimal(int decimalPlaces) {
+		return (Function<Double, String>) FORMATS.computeIfAbsent("decimal:" + decimalPlaces,
+				key -> new DecimalText(decimalPlaces));
+	}
+
+	// DateTimeFormatter patterns, in the system time zone
+	@SuppressWarnings("unchecked")
+	public static Function<Date, String> date(String pattern) {
+		return (Function<Date, String>) FORMATS.computeIfAbsent("date:" + pattern, key -> new DateText(pattern));
+	}
+
+	private static class DecimalText implements Function<Double, String> {
+
+		private final int decimalPlaces;
+		private final char decimalSeparator;
+		private final TextCache cache = new TextCache();
+
+		DecimalText(int decimalPlaces) {
+			this.decimalPlaces = decimalPlaces;
+			this.decimalSeparator = DecimalFormatSymbols.getInstance().getDecimalSeparator();
+		}
+
+		@Override
+		public String apply(Double value) {
+			long key = Double.doubleToLongBits(value);
+			String text = cache.get(key);
+			if (text == null) {
+				text = format(value);
+				cache.put(key, text);
+			}
+			return text;
+		}
+
+		// Formatter rounds the shortest decimal representation half up, BigDecimal.valueOf starts from the same digits
+		private String format(double value) {
+			if (Double.isNaN(value) || Double.isInfinite(value)) {
+				return String.format("%." + decimalPlaces + "f", value);
+			}
+			String text = BigDecimal.valueOf(value).setScale(decimalPlaces, RoundingMode.HALF_UP).toPlainString();
+			// the sign bit, so -0.0 and values rounding to zero keep their minus sign as in Formatter
+			if (Double.doubleToRawLongBits(value) < 0 && text.charAt(0) != '-') {
+				text = "-" + text;
+			}
+			return decimalSeparator == '.' ? text : text.replace('.', decimalSeparator);
+		}
+	}
+
+	private static class DateText implements Function<Date, String> {
+
+		private final DateTimeFormatter formatter;
+		private final TextCache cache = new TextCache();
+
+		DateText(String pattern) {
+			this.formatter = DateTimeFormatter.ofPattern(pattern).withZone(ZoneId.systemDefault());
+		}
+
+		@Override
+		public String apply(Date value) {
+			long key = value.getTime();
+			String text = cache.get(key);
+			if (text == null) {
+				// java.sql.Date does not support toInstant()
+				text = formatter.format(Instant.ofEpochMilli(key));
+				cache.put(key, text);
+			}
+			return text;
+		}
+	}
+
+	// direct mapped, a collision replaces the slot; entries are immutable, so any thread sees a whole one
+	private static class TextCache {
+
+		private final Entry[] slots = new Entry[1 << CACHE_BITS];
+
+		String get(long key) {
+			Entry entry = slots[index(key)];
+			return entry != null && entry.key == key ? entry.text : null;
+		}
+
+		void put(long key, String text) {
+			slots[index(key)] = new Entry(key, text);
+		}
+
+		// the top bits of the product depend on every key bit, whole-number doubles have only zeros at the bottom
+		private static int index(long key) {
+			return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - CACHE_BITS));
+		}
+	}
+
+	private static class Entry {
+
+		private final long key;
+		private final String text;
+
+		Entry(long key, String text) {
+			this.key = key;
+			this.text = text;
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+package gui.util;
+
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import db.DB;
+import gui.listeners.DataChangeEvent;
+import gui.listeners.DataChangeListener;
+import javafx.application.Platform;
+import model.dao.ChangeSet;
+import model.dao.SyncToken;
+
+public class ChangePoller<T> {
+
+	private static final Logger LOG = Logger.getLogger(ChangePoller.class.getName());
+
+	private final Class<T> entityType;
+	private final Function<SyncToken, ChangeSet<T>> source;
+	private final DataChangeListener listener;
+	private ScheduledExecutorService scheduler;
+	// kept while the view is hidden, so showing it again picks up everything changed in between
+	private volatile SyncToken token;
+
+	public ChangePoller(Class<T> entityType, Function<SyncToken, ChangeSet<T>> source, DataChangeListener listener) {
+		this.entityType = entityType;
+		this.source = source;
+		this.listener = listener;
+	}
+
+	// polling is off unless sync.intervalSeconds is set in db.properties
+	public static int getIntervalSeconds() {
+		return DB.getIntProperty("sync.intervalSeconds", 0);
+	}
+
+	public synchronized void start() {
+		int interval = getIntervalSeconds();
+		if (scheduler != null || interval <= 0) {
+			return;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "sync-" + entityType.getSimpleName());
+			t.setDaemon(true);
+			return t;
+		});
+		scheduler.scheduleWithFixedDelay(this::poll, 0, interval, TimeUnit.SECONDS);
+	}
+
+	// false when polling is off or has not run yet, the list has to be reloaded to catch up
+	public boolean canResume() {
+		return token != null && getIntervalSeconds() > 0;
+	}
+
+	public synchronized void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+
+	private void poll() {
+		try {
+			ChangeSet<T> changes = source.apply(token);
+			token = changes.getToken();
+			if (changes.isEmpty()) {
+				return;
+			}
+			Platform.runLater(() -> {
+				if (!changes.getChanged().isEmpty()) {
+					listener.onDataChanged(new DataChangeEvent<>(DataChangeEvent.Type.UPDATE, entityType,
+							changes.getChanged(), Collections.emptyList()));
+				}
+				if (!changes.getDeletedIds().isEmpty()) {
+					listener.onDataChanged(new DataChangeEvent<>(DataChangeEvent.Type.DELETE, entityType,
+							Collections.emptyList(), changes.getDeletedIds()));
+				}
+			});
+		} catch (RuntimeException e) {
+			LOG.log(Level.WARNING, "Could not poll " + entityType.getSimpleName() + " changes", e);
+		}
+	}
+
+}
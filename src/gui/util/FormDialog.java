@@ -0,0 +1,73 @@
+package gui.util;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+import application.Main;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert.AlertType;
+import javafx.scene.layout.Pane;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+
+// a modal form parsed once and shown again for every edit, owned by the main window
+public class FormDialog<T> {
+
+	private final String absolutePath;
+	private final String title;
+	private final Consumer<T> initAction;
+	private Stage stage;
+	private T controller;
+
+	// initAction runs once, when the form is first built
+	public FormDialog(String absolutePath, String title, Consumer<T> initAction) {
+		this.absolutePath = absolutePath;
+		this.title = title;
+		this.initAction = initAction;
+	}
+
+	// builds the form ahead of the first show, FX thread only
+	public void preload() {
+		try {
+			load();
+		} catch (IOException e) {
+			Alerts.showAlert("IO Exception", "Error loading view", e.getMessage(), AlertType.ERROR);
+		}
+	}
+
+	// prepareAction resets the reused controller for this edit
+	public void showAndWait(Consumer<T> prepareAction) {
+		try {
+			load();
+		} catch (IOException e) {
+			Alerts.showAlert("IO Exception", "Error loading view", e.getMessage(), AlertType.ERROR);
+			return;
+		}
+		if (stage.isShowing()) {
+			stage.toFront();
+			return;
+		}
+		prepareAction.accept(controller);
+		stage.showAndWait();
+	}
+
+	private void load() throws IOException {
+		if (stage != null) {
+			return;
+		}
+		FXMLLoader loader = new FXMLLoader(getClass().getResource(absolutePath));
+		Pane pane = loader.load();
+		controller = loader.getController();
+		initAction.accept(controller);
+
+		Stage dialogStage = new Stage();
+		dialogStage.setTitle(title);
+		dialogStage.setScene(new Scene(pane));
+		dialogStage.setResizable(false);
+		dialogStage.initOwner(Main.getMainScene().getWindow());
+		dialogStage.initModality(Modality.WINDOW_MODAL);
+		stage = dialogStage;
+	}
+
+}
@@ -1,25 +1,65 @@
 package gui.util;
 
-import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.event.ActionEvent;
 import javafx.scene.Node;
+import javafx.scene.control.Button;
 import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
 import javafx.stage.Stage;
 import javafx.util.StringConverter;
 import model.entities.Department;
 
 public class Utils {
 
+	// completes service futures back on the JavaFX Application Thread
+	public static final Executor FX_THREAD = Platform::runLater;
+
+	private static final int MAX_ALERT_ROWS = 10;
+
 	public static Stage currentStage(ActionEvent event) {
 		return (Stage) ((Node) event.getSource()).getScene().getWindow();
 	}
 
+	public static Throwable unwrap(Throwable error) {
+		while ((error instanceof CompletionException || error instanceof ExecutionException)
+				&& error.getCause() != null) {
+			error = error.getCause();
+		}
+		return error;
+	}
+
+	// for alerts, one line per row and no more than a screen of them
+	public static <T> String describeRows(List<T> rows, Function<? super T, String> describe) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < rows.size() && i < MAX_ALERT_ROWS; i++) {
+			sb.append(describe.apply(rows.get(i))).append('\n');
+		}
+		if (rows.size() > MAX_ALERT_ROWS) {
+			sb.append("and ").append(rows.size() - MAX_ALERT_ROWS).append(" more\n");
+		}
+		return sb.toString();
+	}
+
+	public static void setLoading(TableView<?> tableView, boolean loading) {
+		tableView.setPlaceholder(loading ? new ProgressIndicator() : new Label("No content in table"));
+	}
+
 	public static Integer tryParseToInt(String str) {
 		try {
 			return Integer.parseInt(str);
@@ -36,56 +76,41 @@ public class Utils {
 		}
 	}
 
+	// one factory per column, the cells share its cached formatter
 	public static <T> void formatTableColumnDate(TableColumn<T, Date> tableColumn, String format) {
-		tableColumn.setCellFactory(column -> {
-			TableCell<T, Date> cell = new TableCell<T, Date>() {
-				private SimpleDateFormat sdf = new SimpleDateFormat(format);
-
-				@Override
-				protected void updateItem(Date item, boolean empty) {
-					super.updateItem(item, empty);
-					if (empty) {
-						setText(null);
-					} else {
-						setText(sdf.format(item));
-					}
-				}
-			};
-			return cell;
-		});
+		formatTableColumn(tableColumn, CellFormats.date(format));
 	}
 
 	public static <T> void formatTableColumnDouble(TableColumn<T, Double> tableColumn, int decimalPlaces) {
-		tableColumn.setCellFactory(column -> {
-			TableCell<T, Double> cell = new TableCell<T, Double>() {
-				@Override
-				protected void updateItem(Double item, boolean empty) {
-					super.updateItem(item, empty);
-					if (empty) {
-						setText(null);
-					} else {
-						setText(String.format("%." + decimalPlaces + "f", item));
-					}
-				}
-			};
-			return cell;
-		});
+		formatTableColumn(tableColumn, CellFormats.decimal(decimalPlaces));
 	}
 
 	public static <T> void formatTableColumnDepartment(TableColumn<T, Department> tableColumn) {
-		tableColumn.setCellFactory(column -> {
-			TableCell<T, Department> cell = new TableCell<T, Department>() {
-				@Override
-				protected void updateItem(Department item, boolean empty) {
-					super.updateItem(item, empty);
-					if (empty) {
-						setText(null);
-					} else {
-						setText(item.getName());
+		formatTableColumn(tableColumn, Department::getName);
+	}
+
+	public static <T, V> void formatTableColumn(TableColumn<T, V> tableColumn, Function<? super V, String> format) {
+		tableColumn.setCellFactory(column -> new TextCell<>(format));
+	}
+
+	// a button per row whose action reads the row's item when clicked, nothing is allocated per update
+	public static <T> void buttonTableColumn(TableColumn<T, T> tableColumn, String text, Consumer<T> action) {
+		tableColumn.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
+		tableColumn.setCellFactory(column -> new TableCell<T, T>() {
+			private final Button button = new Button(text);
+			{
+				button.setOnAction(event -> {
+					if (getItem() != null) {
+						action.accept(getItem());
 					}
-				}
-			};
-			return cell;
+				});
+			}
+
+			@Override
+			protected void updateItem(T item, boolean empty) {
+				super.updateItem(item, empty);
+				setGraphic(empty || item == null ? null : button);
+			}
 		});
 	}
 
@@ -116,4 +141,20 @@ public class Utils {
 		});
 	}
 
+	// cached strings come back as the same instance, so an unchanged cell does not relayout
+	private static class TextCell<T, V> extends TableCell<T, V> {
+
+		private final Function<? super V, String> format;
+
+		TextCell(Function<? super V, String> format) {
+			this.format = format;
+		}
+
+		@Override
+		protected void updateItem(V item, boolean empty) {
+			super.updateItem(item, empty);
+			setText(empty || item == null ? null : format.apply(item));
+		}
+	}
+
 }
@@ -0,0 +1,297 @@
+package model.analytics;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import model.dao.DepartmentCache;
+import model.entities.Department;
+import model.entities.Seller;
+
+// read-only, one primitive array per column, names and emails are dictionary codes
+public class SellerSnapshot {
+
+	private final int size;
+	private final int[] ids;
+	private final int[] departmentIds;
+	private final double[] salaries;
+	private final int[] birthEpochDays;
+	private final int[] nameCodes;
+	private final int[] emailCodes;
+	private final String[] names;
+	private final String[] emails;
+
+	private SellerSnapshot(Builder b) {
+		size = b.size;
+		ids = Arrays.copyOf(b.ids, size);
+		departmentIds = Arrays.copyOf(b.departmentIds, size);
+		salaries = Arrays.copyOf(b.salaries, size);
+		birthEpochDays = Arrays.copyOf(b.birthEpochDays, size);
+		nameCodes = Arrays.copyOf(b.nameCodes, size);
+		emailCodes = Arrays.copyOf(b.emailCodes, size);
+		names = b.names.values();
+		emails = b.emails.values();
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getId(int row) {
+		return ids[row];
+	}
+
+	public int getDepartmentId(int row) {
+		return departmentIds[row];
+	}
+
+	public double getSalary(int row) {
+		return salaries[row];
+	}
+
+	public LocalDate getBirthDate(int row) {
+		return LocalDate.ofEpochDay(birthEpochDays[row]);
+	}
+
+	public String getName(int row) {
+		return names[nameCodes[row]];
+	}
+
+	public String getEmail(int row) {
+		return emails[emailCodes[row]];
+	}
+
+	public int getDistinctNames() {
+		return names.length;
+	}
+
+	public int getDistinctEmails() {
+		return emails.length;
+	}
+
+	// back to an entity, for the rows a dashboard actually shows
+	public Seller toSeller(int row) {
+		Department dep = DepartmentCache.getInstance().get(departmentIds[row]);
+		if (dep == null) {
+			dep = new Department(departmentIds[row], null);
+		}
+		// a plain Date, the seller form calls toInstant() which java.sql.Date does not support
+		Date birthDate = Date.from(getBirthDate(row).atStartOfDay(ZoneId.systemDefault()).toInstant());
+		return new Seller(ids[row], getName(row), getEmail(row), birthDate, salaries[row], dep);
+	}
+
+	public double totalSalary() {
+		double total = 0.0;
+		for (int i = 0; i < size; i++) {
+			total += salaries[i];
+		}
+		return total;
+	}
+
+	public double averageSalary() {
+		return size == 0 ? 0.0 : totalSalary() / size;
+	}
+
+	public double minSalary() {
+		double min = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < size; i++) {
+			min = Math.min(min, salaries[i]);
+		}
+		return min;
+	}
+
+	public double maxSalary() {
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < size; i++) {
+			max = Math.max(max, salaries[i]);
+		}
+		return max;
+	}
+
+	public double totalSalary(int[] rows) {
+		double total = 0.0;
+		for (int row : rows) {
+			total += salaries[row];
+		}
+		return total;
+	}
+
+	// keyed by department id in ascending order
+	public Map<Integer, Double> totalSalaryByDepartment() {
+		int maxId = 0;
+		for (int i = 0; i < size; i++) {
+			maxId = Math.max(maxId, departmentIds[i]);
+		}
+		Map<Integer, Double> totals = new LinkedHashMap<>();
+		// ids are small auto-increment keys, so a dense array indexed by id is enough
+		if (maxId < 1 << 16) {
+			double[] sums = new double[maxId + 1];
+			boolean[] seen = new boolean[maxId + 1];
+			for (int i = 0; i < size; i++) {
+				sums[departmentIds[i]] += salaries[i];
+				seen[departmentIds[i]] = true;
+			}
+			for (int id = 0; id <= maxId; id++) {
+				if (seen[id]) {
+					totals.put(id, sums[id]);
+				}
+			}
+			return totals;
+		}
+		Map<Integer, Double> sparse = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			sparse.merge(departmentIds[i], salaries[i], Double::sum);
+		}
+		sparse.keySet().stream().sorted().forEach(id -> totals.put(id, sparse.get(id)));
+		return totals;
+	}
+
+	// the select methods return matching row numbers in ascending order, the overloads narrow an earlier selection
+	public int[] selectDepartment(int departmentId) {
+		int[] rows = new int[size];
+		int n = 0;
+		for (int i = 0; i < size; i++) {
+			rows[n] = i;
+			n += departmentIds[i] == departmentId ? 1 : 0;
+		}
+		return Arrays.copyOf(rows, n);
+	}
+
+	public int[] selectDepartment(int[] selection, int departmentId) {
+		int[] rows = new int[selection.length];
+		int n = 0;
+		for (int row : selection) {
+			rows[n] = row;
+			n += departmentIds[row] == departmentId ? 1 : 0;
+		}
+		return Arrays.copyOf(rows, n);
+	}
+
+	public int[] selectSalaryBetween(double min, double max) {
+		int[] rows = new int[size];
+		int n = 0;
+		for (int i = 0; i < size; i++) {
+			rows[n] = i;
+			n += salaries[i] >= min && salaries[i] <= max ? 1 : 0;
+		}
+		return Arrays.copyOf(rows, n);
+	}
+
+	public int[] selectSalaryBetween(int[] selection, double min, double max) {
+		int[] rows = new int[selection.length];
+		int n = 0;
+		for (int row : selection) {
+			rows[n] = row;
+			n += salaries[row] >= min && salaries[row] <= max ? 1 : 0;
+		}
+		return Arrays.copyOf(rows, n);
+	}
+
+	public int[] selectBornBetween(LocalDate from, LocalDate to) {
+		int first = epochDay(from);
+		int last = epochDay(to);
+		int[] rows = new int[size];
+		int n = 0;
+		for (int i = 0; i < size; i++) {
+			rows[n] = i;
+			n += birthEpochDays[i] >= first && birthEpochDays[i] <= last ? 1 : 0;
+		}
+		return Arrays.copyOf(rows, n);
+	}
+
+	public int[] selectBornBetween(int[] selection, LocalDate from, LocalDate to) {
+		int first = epochDay(from);
+		int last = epochDay(to);
+		int[] rows = new int[selection.length];
+		int n = 0;
+		for (int row : selection) {
+			rows[n] = row;
+			n += birthEpochDays[row] >= first && birthEpochDays[row] <= last ? 1 : 0;
+		}
+		return Arrays.copyOf(rows, n);
+	}
+
+	// LocalDate.MIN and MAX fall outside int, clamping keeps them usable as open bounds
+	private static int epochDay(LocalDate date) {
+		return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, date.toEpochDay()));
+	}
+
+	public static class Builder {
+
+		private int size;
+		private int[] ids;
+		private int[] departmentIds;
+		private double[] salaries;
+		private int[] birthEpochDays;
+		private int[] nameCodes;
+		private int[] emailCodes;
+		private final Dictionary names = new Dictionary();
+		private final Dictionary emails = new Dictionary();
+
+		public Builder(int expectedSize) {
+			int capacity = Math.max(16, expectedSize);
+			ids = new int[capacity];
+			departmentIds = new int[capacity];
+			salaries = new double[capacity];
+			birthEpochDays = new int[capacity];
+			nameCodes = new int[capacity];
+			emailCodes = new int[capacity];
+		}
+
+		public Builder add(int id, int departmentId, double salary, long birthEpochDay, String name, String email) {
+			if (size == ids.length) {
+				grow();
+			}
+			ids[size] = id;
+			departmentIds[size] = departmentId;
+			salaries[size] = salary;
+			birthEpochDays[size] = (int) birthEpochDay;
+			nameCodes[size] = names.code(name);
+			emailCodes[size] = emails.code(email);
+			size++;
+			return this;
+		}
+
+		public SellerSnapshot build() {
+			return new SellerSnapshot(this);
+		}
+
+		private void grow() {
+			int capacity = ids.length + (ids.length >> 1);
+			ids = Arrays.copyOf(ids, capacity);
+			departmentIds = Arrays.copyOf(departmentIds, capacity);
+			salaries = Arrays.copyOf(salaries, capacity);
+			birthEpochDays = Arrays.copyOf(birthEpochDays, capacity);
+			nameCodes = Arrays.copyOf(nameCodes, capacity);
+			emailCodes = Arrays.copyOf(emailCodes, capacity);
+		}
+	}
+
+	private static class Dictionary {
+
+		private final Map<String, Integer> codes = new HashMap<>();
+		private String[] values = new String[16];
+
+		int code(String value) {
+			Integer code = codes.get(value);
+			if (code == null) {
+				code = codes.size();
+				if (code == values.length) {
+					values = Arrays.copyOf(values, code * 2);
+				}
+				values[code] = value;
+				codes.put(value, code);
+			}
+			return code;
+		}
+
+		String[] values() {
+			return Arrays.copyOf(values, codes.size());
+		}
+	}
+
+}
@@ -0,0 +1,34 @@
+package model.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+public class ChangeSet<T> {
+
+	private final List<T> changed;
+	private final List<Integer> deletedIds;
+	private final SyncToken token;
+
+	public ChangeSet(List<T> changed, List<Integer> deletedIds, SyncToken token) {
+		this.changed = Collections.unmodifiableList(changed);
+		this.deletedIds = Collections.unmodifiableList(deletedIds);
+		this.token = token;
+	}
+
+	public List<T> getChanged() {
+		return changed;
+	}
+
+	public List<Integer> getDeletedIds() {
+		return deletedIds;
+	}
+
+	public SyncToken getToken() {
+		return token;
+	}
+
+	public boolean isEmpty() {
+		return changed.isEmpty() && deletedIds.isEmpty();
+	}
+
+}
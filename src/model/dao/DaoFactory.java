@@ -2,16 +2,30 @@ package model.dao;
 
 import db.DB;
 import model.dao.impl.DepartmentDaoJDBC;
+import model.dao.impl.PayrollDaoJDBC;
+import model.dao.impl.ReportDaoJDBC;
 import model.dao.impl.SellerDaoJDBC;
+import model.dao.metrics.DaoMetrics;
 
 public class DaoFactory {
 
 	public static SellerDao createSellerDao() {
-		return new SellerDaoJDBC(DB.getConnection());
+		return DaoMetrics.decorate(SellerDao.class,
+				new SellerDaoJDBC(DB.getIntProperty("batch.size", SellerDaoJDBC.DEFAULT_BATCH_SIZE)));
 	}
 	
 	public static DepartmentDao createDepartmentDao() {
-		return new DepartmentDaoJDBC(DB.getConnection());
+		return DaoMetrics.decorate(DepartmentDao.class,
+				new DepartmentDaoJDBC(DB.getIntProperty("batch.size", DepartmentDaoJDBC.DEFAULT_BATCH_SIZE)));
+	}
+	
+	public static PayrollDao createPayrollDao() {
+		return DaoMetrics.decorate(PayrollDao.class,
+				new PayrollDaoJDBC(DB.getIntProperty("batch.size", PayrollDaoJDBC.DEFAULT_BATCH_SIZE)));
+	}
+	
+	public static ReportDao createReportDao() {
+		return DaoMetrics.decorate(ReportDao.class, new ReportDaoJDBC());
 	}
 	
 }
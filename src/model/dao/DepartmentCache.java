@@ -0,0 +1,116 @@
+package model.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import model.entities.Department;
+
+public class DepartmentCache {
+
+	private static final DepartmentCache INSTANCE = new DepartmentCache();
+
+	// readers only ever see a complete snapshot, writers replace it under the lock; a published Department is
+	// never modified, since the FX thread may be rendering it, a rename publishes a new instance instead
+	private volatile Snapshot snapshot = new Snapshot(new LinkedHashMap<>(), false);
+
+	public static DepartmentCache getInstance() {
+		return INSTANCE;
+	}
+
+	public boolean isLoaded() {
+		return snapshot.loaded;
+	}
+
+	public List<Department> getAll(Supplier<List<Department>> loader) {
+		Snapshot current = snapshot;
+		if (current.loaded) {
+			return current.all;
+		}
+		List<Department> departments = loader.get();
+		return load(departments);
+	}
+
+	public Department get(Integer id) {
+		return snapshot.byId.get(id);
+	}
+
+	// unchanged departments keep the instance already handed out, renamed ones are the freshly loaded rows
+	public synchronized List<Department> load(List<Department> departments) {
+		Map<Integer, Department> byId = new LinkedHashMap<>();
+		for (Department dep : departments) {
+			Department cached = snapshot.byId.get(dep.getId());
+			boolean unchanged = cached != null && Objects.equals(cached.getName(), dep.getName());
+			byId.put(dep.getId(), unchanged ? cached : dep);
+		}
+		Snapshot loaded = new Snapshot(byId, true);
+		snapshot = loaded;
+		return loaded.all;
+	}
+
+	// the shared instance when the row agrees with it; a read that overlaps a rename may carry either name,
+	// so a row never renames the cached department, it gets an instance of its own
+	public Department canonical(int id, String name) {
+		Department dep = snapshot.byId.get(id);
+		if (dep == null) {
+			return addIfAbsent(id, name);
+		}
+		return Objects.equals(dep.getName(), name) ? dep : new Department(id, name);
+	}
+
+	private synchronized Department addIfAbsent(int id, String name) {
+		Department dep = snapshot.byId.get(id);
+		if (dep != null) {
+			return Objects.equals(dep.getName(), name) ? dep : new Department(id, name);
+		}
+		return put(new Department(id, name));
+	}
+
+	// for writes this workstation made or polled, returns the instance the cache now shares
+	public synchronized Department put(Department department) {
+		if (department.getId() == null) {
+			return department;
+		}
+		Department cached = snapshot.byId.get(department.getId());
+		if (cached != null && Objects.equals(cached.getName(), department.getName())) {
+			return cached;
+		}
+		// a copy, the caller keeps its own instance
+		Department published = new Department(department.getId(), department.getName());
+		Map<Integer, Department> byId = new LinkedHashMap<>(snapshot.byId);
+		byId.put(published.getId(), published);
+		snapshot = new Snapshot(byId, snapshot.loaded);
+		return published;
+	}
+
+	public synchronized void remove(Integer id) {
+		if (!snapshot.byId.containsKey(id)) {
+			return;
+		}
+		Map<Integer, Department> byId = new LinkedHashMap<>(snapshot.byId);
+		byId.remove(id);
+		snapshot = new Snapshot(byId, snapshot.loaded);
+	}
+
+	public synchronized void invalidate() {
+		snapshot = new Snapshot(snapshot.byId, false);
+	}
+
+	private static class Snapshot {
+
+		private final Map<Integer, Department> byId;
+		private final List<Department> all;
+		private final boolean loaded;
+
+		Snapshot(Map<Integer, Department> byId, boolean loaded) {
+			this.byId = Collections.unmodifiableMap(byId);
+			this.all = Collections.unmodifiableList(new ArrayList<>(byId.values()));
+			this.loaded = loaded;
+		}
+	}
+
+}
@@ -1,5 +1,6 @@
 package model.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 import model.entities.Department;
@@ -8,8 +9,11 @@ public interface DepartmentDao {
 
 	void insert(Department department);
 	void update(Department department);
+	void insertAll(Collection<Department> departments);
+	void updateAll(Collection<Department> departments);
 	void deleteById(Integer id);
 	Department findById(Integer id);
 	List<Department> findAll();
+	ChangeSet<Department> findModifiedSince(SyncToken token);
 	
 }
@@ -0,0 +1,12 @@
+package model.dao;
+
+import java.util.Collection;
+
+import model.entities.PayrollProjection;
+
+public interface PayrollDao {
+
+	void insertAll(Collection<PayrollProjection> projections);
+	void deletePeriod(String period);
+
+}
@@ -0,0 +1,13 @@
+package model.dao;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import model.entities.DepartmentReport;
+
+public interface ReportDao {
+
+	// one row per department, ages are counted as of the given day
+	List<DepartmentReport> departmentSalaries(LocalDate asOf);
+
+}
@@ -1,7 +1,10 @@
 package model.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import model.analytics.SellerSnapshot;
 import model.entities.Department;
 import model.entities.Seller;
 
@@ -9,9 +12,17 @@ public interface SellerDao {
 
 	void insert(Seller seller);
 	void update(Seller seller);
+	void insertAll(Collection<Seller> sellers);
+	void updateAll(Collection<Seller> sellers);
 	void deleteById(Integer id);
 	Seller findById(Integer id);
 	List<Seller> findByDepartment(Department department);
 	List<Seller> findAll();
+	ChangeSet<Seller> findModifiedSince(SyncToken token);
+	Stream<Seller> streamAll(int fetchSize);
+	List<Seller> findPage(String afterName, Integer afterId, int limit);
+	List<Seller> search(SellerQuery query);
+	int count();
+	SellerSnapshot snapshot(int fetchSize);
 	
 }
@@ -0,0 +1,122 @@
+package model.dao;
+
+import java.time.LocalDate;
+
+import db.QueryCancellation;
+
+public class SellerQuery {
+
+	public static final int DEFAULT_LIMIT = 100;
+
+	private String namePrefix;
+	private String emailPrefix;
+	private Integer departmentId;
+	private Double minSalary;
+	private Double maxSalary;
+	private LocalDate bornFrom;
+	private LocalDate bornTo;
+
+	// keyset position, results continue after this (Name, Id)
+	private String afterName;
+	private Integer afterId;
+	private int limit = DEFAULT_LIMIT;
+	// optional, cancels the statement of this search while it runs
+	private QueryCancellation cancellation;
+
+	public String getNamePrefix() {
+		return namePrefix;
+	}
+
+	public void setNamePrefix(String namePrefix) {
+		this.namePrefix = namePrefix;
+	}
+
+	public String getEmailPrefix() {
+		return emailPrefix;
+	}
+
+	public void setEmailPrefix(String emailPrefix) {
+		this.emailPrefix = emailPrefix;
+	}
+
+	public Integer getDepartmentId() {
+		return departmentId;
+	}
+
+	public void setDepartmentId(Integer departmentId) {
+		this.departmentId = departmentId;
+	}
+
+	public Double getMinSalary() {
+		return minSalary;
+	}
+
+	public void setMinSalary(Double minSalary) {
+		this.minSalary = minSalary;
+	}
+
+	public Double getMaxSalary() {
+		return maxSalary;
+	}
+
+	public void setMaxSalary(Double maxSalary) {
+		this.maxSalary = maxSalary;
+	}
+
+	public LocalDate getBornFrom() {
+		return bornFrom;
+	}
+
+	public void setBornFrom(LocalDate bornFrom) {
+		this.bornFrom = bornFrom;
+	}
+
+	public LocalDate getBornTo() {
+		return bornTo;
+	}
+
+	public void setBornTo(LocalDate bornTo) {
+		this.bornTo = bornTo;
+	}
+
+	public String getAfterName() {
+		return afterName;
+	}
+
+	public Integer getAfterId() {
+		return afterId;
+	}
+
+	public void setAfter(String afterName, Integer afterId) {
+		this.afterName = afterName;
+		this.afterId = afterId;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public void setLimit(int limit) {
+		if (limit < 1) {
+			throw new IllegalArgumentException("Limit must be positive");
+		}
+		this.limit = limit;
+	}
+
+	public QueryCancellation getCancellation() {
+		return cancellation;
+	}
+
+	public void setCancellation(QueryCancellation cancellation) {
+		this.cancellation = cancellation;
+	}
+
+	@Override
+	public String toString() {
+		return "SellerQuery [namePrefix=" + namePrefix + ", emailPrefix=" + emailPrefix + ", departmentId="
+				+ departmentId + ", minSalary=" + minSalary + ", maxSalary=" + maxSalary + ", bornFrom=" + bornFrom
+				+ ", bornTo=" + bornTo + ", afterName=" + afterName + ", afterId=" + afterId + ", limit=" + limit
+				+ "]";
+	}
+
+}
@@ -0,0 +1,31 @@
+package model.dao;
+
+import java.io.Serializable;
+
+public class SyncToken implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	// rows committed shortly before the token was taken can carry an older timestamp, so re-read a window
+	public static final long OVERLAP_MILLIS = 5000;
+
+	private final long serverTimeMillis;
+
+	public SyncToken(long serverTimeMillis) {
+		this.serverTimeMillis = serverTimeMillis;
+	}
+
+	public long getServerTimeMillis() {
+		return serverTimeMillis;
+	}
+
+	public long getQueryFromMillis() {
+		return serverTimeMillis - OVERLAP_MILLIS;
+	}
+
+	@Override
+	public String toString() {
+		return "SyncToken [serverTimeMillis=" + serverTimeMillis + "]";
+	}
+
+}
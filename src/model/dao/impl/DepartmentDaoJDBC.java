@@ -5,46 +5,70 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.ArrayList;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import db.DB;
 import db.DbException;
+import model.dao.ChangeSet;
 import model.dao.DepartmentDao;
+import model.dao.SyncToken;
 import model.entities.Department;
 
 public class DepartmentDaoJDBC implements DepartmentDao {
 
-	private Connection conn;
+	public static final int DEFAULT_BATCH_SIZE = 500;
 
-	public DepartmentDaoJDBC(Connection conn) {
-		this.conn = conn;
+	private static final String INSERT = "INSERT INTO department(Name) VALUES (?)";
+	private static final String UPDATE = "UPDATE department SET Name = ? WHERE Id = ?";
+	private static final String DELETE_BY_ID = "DELETE FROM department WHERE Id = ?";
+	private static final String FIND_BY_ID = "SELECT * FROM department WHERE Id = ?";
+	private static final String FIND_ALL = "SELECT * FROM department";
+	private static final String FIND_MODIFIED_SINCE = "SELECT * FROM department WHERE UpdatedAt >= ?";
+
+	private final int batchSize;
+
+	public DepartmentDaoJDBC() {
+		this(DEFAULT_BATCH_SIZE);
+	}
+
+	public DepartmentDaoJDBC(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive");
+		}
+		this.batchSize = batchSize;
 	}
 
 	@Override
 	public void insert(Department department) {
 
+		Connection conn = null;
 		PreparedStatement ps = null;
+		ResultSet rs = null;
 
 		try {
 
-			ps = conn.prepareStatement("INSERT INTO department(Name) VALUES (?);", Statement.RETURN_GENERATED_KEYS);
+			conn = DB.getConnection();
+			ps = conn.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS);
 			ps.setString(1, department.getName());
 
 			int rowsAffected = ps.executeUpdate();
 
 			if (rowsAffected > 0) {
-				ResultSet rs = ps.getGeneratedKeys();
+				rs = ps.getGeneratedKeys();
 				if (rs.next()) {
 					department.setId(rs.getInt(1));
 				}
-				DB.closeResultSet(rs);
 			}
 
 		} catch (SQLException e) {
 			throw new DbException(e.getMessage());
 		} finally {
+			DB.closeResultSet(rs);
 			DB.closeStatement(ps);
+			DB.closeConnection(conn);
 		}
 
 	}
@@ -52,11 +76,13 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 	@Override
 	public void update(Department department) {
 
+		Connection conn = null;
 		PreparedStatement ps = null;
 
 		try {
 
-			ps = conn.prepareStatement("UPDATE department SET Name = ? WHERE Id = ?;");
+			conn = DB.getConnection();
+			ps = conn.prepareStatement(UPDATE);
 			ps.setString(1, department.getName());
 			ps.setInt(2, department.getId());
 
@@ -66,18 +92,35 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 			throw new DbException(e.getMessage());
 		} finally {
 			DB.closeStatement(ps);
+			DB.closeConnection(conn);
 		}
 
 	}
 
+	@Override
+	public void insertAll(Collection<Department> departments) {
+		JdbcBatch.execute(INSERT, departments, batchSize, (ps, dep) -> ps.setString(1, dep.getName()),
+				Department::setId);
+	}
+
+	@Override
+	public void updateAll(Collection<Department> departments) {
+		JdbcBatch.execute(UPDATE, departments, batchSize, (ps, dep) -> {
+			ps.setString(1, dep.getName());
+			ps.setInt(2, dep.getId());
+		});
+	}
+
 	@Override
 	public void deleteById(Integer id) {
 
+		Connection conn = null;
 		PreparedStatement ps = null;
 
 		try {
 
-			ps = conn.prepareStatement("DELETE FROM department WHERE Id = ?;");
+			conn = DB.getConnection();
+			ps = conn.prepareStatement(DELETE_BY_ID);
 			ps.setInt(1, id);
 
 			ps.executeUpdate();
@@ -86,32 +129,29 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 			throw new DbException(e.getMessage());
 		} finally {
 			DB.closeStatement(ps);
+			DB.closeConnection(conn);
 		}
-		
+
 	}
 
 	@Override
 	public Department findById(Integer id) {
 
+		Connection conn = null;
 		PreparedStatement ps = null;
+		ResultSet rs = null;
 
 		try {
 
-			ps = conn.prepareStatement("SELECT * FROM department WHERE Id = ?");
+			conn = DB.getConnection();
+			ps = conn.prepareStatement(FIND_BY_ID);
 			ps.setInt(1, id);
 
-			ResultSet rs = ps.executeQuery();
+			rs = ps.executeQuery();
 			Department dep = null;
 
 			if (rs.next()) {
-
-				dep = new Department();
-				dep.setId(rs.getInt("Id"));
-				dep.setName(rs.getString("Name"));
-
-				DB.closeResultSet(rs);
-
-				return dep;
+				dep = new DepartmentRowMapper(rs.getMetaData()).map(rs);
 			}
 
 			return dep;
@@ -119,7 +159,9 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 		} catch (SQLException e) {
 			throw new DbException(e.getMessage());
 		} finally {
+			DB.closeResultSet(rs);
 			DB.closeStatement(ps);
+			DB.closeConnection(conn);
 		}
 
 	}
@@ -127,32 +169,62 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 	@Override
 	public List<Department> findAll() {
 
+		Connection conn = null;
 		PreparedStatement ps = null;
+		ResultSet rs = null;
 
 		try {
 
-			ps = conn.prepareStatement("SELECT * FROM department");
+			conn = DB.getConnection();
+			ps = conn.prepareStatement(FIND_ALL);
 
-			ResultSet rs = ps.executeQuery();
-			List<Department> depList = new ArrayList<>();
-			Department dep = null;
+			rs = ps.executeQuery();
+
+			return RowMapper.list(rs, new DepartmentRowMapper(rs.getMetaData()));
 
-			while (rs.next()) {
-				dep = new Department();
-				dep.setId(rs.getInt("Id"));
-				dep.setName(rs.getString("Name"));
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(ps);
+			DB.closeConnection(conn);
+		}
 
-				depList.add(dep);
+	}
 
+	@Override
+	public ChangeSet<Department> findModifiedSince(SyncToken token) {
+
+		Connection conn = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+
+		try {
+
+			conn = DB.getConnection();
+			SyncToken next = SyncQueries.currentToken(conn);
+
+			if (token == null) {
+				return new ChangeSet<>(Collections.emptyList(), Collections.emptyList(), next);
 			}
 
-			DB.closeResultSet(rs);
-			return depList;
+			Timestamp since = new Timestamp(token.getQueryFromMillis());
+			ps = conn.prepareStatement(FIND_MODIFIED_SINCE);
+			ps.setTimestamp(1, since);
+
+			rs = ps.executeQuery();
+			List<Department> changed = RowMapper.list(rs, new DepartmentRowMapper(rs.getMetaData()));
+
+			List<Integer> deleted = SyncQueries.deletedIdsSince(conn, "department", since);
+
+			return new ChangeSet<>(changed, deleted, next);
 
 		} catch (SQLException e) {
 			throw new DbException(e.getMessage());
 		} finally {
+			DB.closeResultSet(rs);
 			DB.closeStatement(ps);
+			DB.closeConnection(conn);
 		}
 
 	}
@@ -0,0 +1,24 @@
+package model.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+import model.entities.Department;
+
+class DepartmentRowMapper implements RowMapper<Department> {
+
+	private final int id;
+	private final int name;
+
+	DepartmentRowMapper(ResultSetMetaData meta) throws SQLException {
+		id = RowMapper.column(meta, "Id");
+		name = RowMapper.column(meta, "Name");
+	}
+
+	@Override
+	public Department map(ResultSet rs) throws SQLException {
+		return new Department(rs.getInt(id), rs.getString(name));
+	}
+
+}
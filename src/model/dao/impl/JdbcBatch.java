@@ -0,0 +1,143 @@
+package model.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import db.DB;
+import db.DbException;
+
+class JdbcBatch {
+
+	interface Binder<T> {
+		void bind(PreparedStatement ps, T item) throws SQLException;
+	}
+
+	interface KeyConsumer<T> {
+		void accept(T item, int generatedKey);
+	}
+
+	static <T> void execute(String sql, Collection<T> items, int chunkSize, Binder<T> binder) {
+		execute(sql, items, chunkSize, binder, null);
+	}
+
+	// every chunk runs in its own transaction, a failing chunk is rolled back and earlier chunks stay committed;
+	// inside a UnitOfWork the chunks join it and the unit commits or rolls back all of them
+	static <T> void execute(String sql, Collection<T> items, int chunkSize, Binder<T> binder,
+			KeyConsumer<T> keyConsumer) {
+
+		if (items.isEmpty()) {
+			return;
+		}
+
+		Connection conn = null;
+		PreparedStatement ps = null;
+		boolean autoCommit = true;
+		boolean joined = DB.isInTransaction();
+
+		try {
+
+			conn = DB.getConnection();
+			if (!joined) {
+				autoCommit = conn.getAutoCommit();
+				conn.setAutoCommit(false);
+			}
+
+			ps = keyConsumer != null ? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+					: conn.prepareStatement(sql);
+
+			List<T> chunk = new ArrayList<>(Math.min(chunkSize, items.size()));
+			for (T item : items) {
+				binder.bind(ps, item);
+				ps.addBatch();
+				chunk.add(item);
+				if (chunk.size() == chunkSize) {
+					flush(conn, ps, chunk, keyConsumer, !joined);
+				}
+			}
+			if (!chunk.isEmpty()) {
+				flush(conn, ps, chunk, keyConsumer, !joined);
+			}
+
+		} catch (SQLException e) {
+			if (!joined) {
+				rollback(conn);
+			}
+			throw new DbException(e.getMessage());
+		} catch (RuntimeException e) {
+			if (!joined) {
+				rollback(conn);
+			}
+			throw e;
+		} finally {
+			DB.closeStatement(ps);
+			if (!joined) {
+				restoreAutoCommit(conn, autoCommit);
+			}
+			DB.closeConnection(conn);
+		}
+	}
+
+	private static <T> void flush(Connection conn, PreparedStatement ps, List<T> chunk, KeyConsumer<T> keyConsumer,
+			boolean commit) throws SQLException {
+
+		ps.executeBatch();
+
+		int[] keys = null;
+		if (keyConsumer != null) {
+			ResultSet rs = null;
+			try {
+				rs = ps.getGeneratedKeys();
+				keys = new int[chunk.size()];
+				int i = 0;
+				while (i < keys.length && rs.next()) {
+					keys[i++] = rs.getInt(1);
+				}
+				if (i < keys.length) {
+					throw new DbException("Expected " + keys.length + " generated keys but got " + i);
+				}
+			} finally {
+				DB.closeResultSet(rs);
+			}
+		}
+
+		if (commit) {
+			conn.commit();
+		}
+
+		// outside a UnitOfWork the chunk is committed by now; inside one the ids are handed out before the unit
+		// commits, and a caller whose unit fails has to drop them (see saveOrUpdateAll in the services)
+		if (keys != null) {
+			for (int i = 0; i < keys.length; i++) {
+				keyConsumer.accept(chunk.get(i), keys[i]);
+			}
+		}
+		chunk.clear();
+	}
+
+	private static void rollback(Connection conn) {
+		if (conn != null) {
+			try {
+				conn.rollback();
+			} catch (SQLException e) {
+				// keep the original failure
+			}
+		}
+	}
+
+	private static void restoreAutoCommit(Connection conn, boolean autoCommit) {
+		if (conn != null) {
+			try {
+				conn.setAutoCommit(autoCommit);
+			} catch (SQLException e) {
+				throw new DbException(e.getMessage());
+			}
+		}
+	}
+
+}
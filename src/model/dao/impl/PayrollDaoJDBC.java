@@ -0,0 +1,68 @@
+package model.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+
+import db.DB;
+import db.DbException;
+import model.dao.PayrollDao;
+import model.entities.PayrollProjection;
+
+public class PayrollDaoJDBC implements PayrollDao {
+
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	private static final String INSERT = "INSERT INTO payroll_projection "
+			+ "(Period, SellerId, DepartmentId, BaseSalary, Gross, Bonus, Tax, Net) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+	private static final String DELETE_PERIOD = "DELETE FROM payroll_projection WHERE Period = ?";
+
+	private final int batchSize;
+
+	public PayrollDaoJDBC() {
+		this(DEFAULT_BATCH_SIZE);
+	}
+
+	public PayrollDaoJDBC(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive");
+		}
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	public void insertAll(Collection<PayrollProjection> projections) {
+		JdbcBatch.execute(INSERT, projections, batchSize, (ps, p) -> {
+			ps.setString(1, p.getPeriod());
+			ps.setInt(2, p.getSellerId());
+			ps.setInt(3, p.getDepartmentId());
+			ps.setDouble(4, p.getBaseSalary());
+			ps.setDouble(5, p.getGross());
+			ps.setDouble(6, p.getBonus());
+			ps.setDouble(7, p.getTax());
+			ps.setDouble(8, p.getNet());
+		});
+	}
+
+	@Override
+	public void deletePeriod(String period) {
+
+		Connection conn = null;
+		PreparedStatement ps = null;
+
+		try {
+			conn = DB.getConnection();
+			ps = conn.prepareStatement(DELETE_PERIOD);
+			ps.setString(1, period);
+			ps.executeUpdate();
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeStatement(ps);
+			DB.closeConnection(conn);
+		}
+
+	}
+
+}
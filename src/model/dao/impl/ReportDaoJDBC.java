@@ -0,0 +1,78 @@
+package model.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import db.DB;
+import db.DbException;
+import model.dao.DepartmentCache;
+import model.dao.ReportDao;
+import model.entities.Department;
+import model.entities.DepartmentReport;
+
+public class ReportDaoJDBC implements ReportDao {
+
+	// age buckets compare BirthDate with the cut-off dates, so no function is applied per row
+	private static final String DEPARTMENT_SALARIES = "SELECT department.Id, department.Name, "
+			+ "COUNT(seller.Id) Headcount, COALESCE(SUM(seller.BaseSalary), 0) TotalSalary, "
+			+ "AVG(seller.BaseSalary) AvgSalary, MIN(seller.BaseSalary) MinSalary, MAX(seller.BaseSalary) MaxSalary, "
+			+ "SUM(CASE WHEN seller.BirthDate > ? THEN 1 ELSE 0 END) Under30, "
+			+ "SUM(CASE WHEN seller.BirthDate <= ? AND seller.BirthDate > ? THEN 1 ELSE 0 END) From30To39, "
+			+ "SUM(CASE WHEN seller.BirthDate <= ? AND seller.BirthDate > ? THEN 1 ELSE 0 END) From40To49, "
+			+ "SUM(CASE WHEN seller.BirthDate <= ? THEN 1 ELSE 0 END) From50 "
+			+ "FROM department LEFT JOIN seller ON seller.DepartmentId = department.Id "
+			+ "GROUP BY department.Id, department.Name ORDER BY department.Name";
+
+	@Override
+	public List<DepartmentReport> departmentSalaries(LocalDate asOf) {
+
+		Connection conn = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+
+		try {
+			conn = DB.getConnection();
+			ps = conn.prepareStatement(DEPARTMENT_SALARIES);
+
+			java.sql.Date born30 = java.sql.Date.valueOf(asOf.minusYears(30));
+			java.sql.Date born40 = java.sql.Date.valueOf(asOf.minusYears(40));
+			java.sql.Date born50 = java.sql.Date.valueOf(asOf.minusYears(50));
+			ps.setDate(1, born30);
+			ps.setDate(2, born30);
+			ps.setDate(3, born40);
+			ps.setDate(4, born40);
+			ps.setDate(5, born50);
+			ps.setDate(6, born50);
+
+			rs = ps.executeQuery();
+			List<DepartmentReport> list = new ArrayList<>();
+
+			while (rs.next()) {
+				Department dep = DepartmentCache.getInstance().canonical(rs.getInt(1), rs.getString(2));
+				list.add(new DepartmentReport(dep, rs.getInt(3), rs.getDouble(4), getDouble(rs, 5),
+						getDouble(rs, 6), getDouble(rs, 7), rs.getInt(8), rs.getInt(9), rs.getInt(10), rs.getInt(11)));
+			}
+
+			return list;
+
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(ps);
+			DB.closeConnection(conn);
+		}
+
+	}
+
+	private static Double getDouble(ResultSet rs, int column) throws SQLException {
+		double value = rs.getDouble(column);
+		return rs.wasNull() ? null : value;
+	}
+
+}
@@ -0,0 +1,31 @@
+package model.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// maps the current row, column positions are resolved once when the mapper is created
+interface RowMapper<T> {
+
+	T map(ResultSet rs) throws SQLException;
+
+	static <T> List<T> list(ResultSet rs, RowMapper<T> mapper) throws SQLException {
+		List<T> list = new ArrayList<>();
+		while (rs.next()) {
+			list.add(mapper.map(rs));
+		}
+		return list;
+	}
+
+	static int column(ResultSetMetaData meta, String label) throws SQLException {
+		for (int i = 1; i <= meta.getColumnCount(); i++) {
+			if (label.equalsIgnoreCase(meta.getColumnLabel(i))) {
+				return i;
+			}
+		}
+		throw new SQLException("Column " + label + " not found in result");
+	}
+
+}
@@ -5,60 +5,106 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import db.DB;
 import db.DbException;
+import db.QueryCancellation;
+import model.analytics.SellerSnapshot;
+import model.dao.ChangeSet;
 import model.dao.SellerDao;
+import model.dao.SellerQuery;
+import model.dao.SyncToken;
 import model.entities.Department;
 import model.entities.Seller;
 
 public class SellerDaoJDBC implements SellerDao {
 
-	private Connection conn;
+	public static final int DEFAULT_BATCH_SIZE = 500;
+	// tells MySQL Connector/J to stream rows one by one instead of buffering the whole result
+	public static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+	private static final String INSERT = "INSERT INTO seller (Name, Email, BirthDate, BaseSalary, DepartmentId) "
+			+ "VALUES (?, ?, ?, ?, ?)";
+	private static final String UPDATE = "UPDATE seller SET Name = ?, Email = ?, BirthDate = ?, BaseSalary = ?, "
+			+ "DepartmentId = ? WHERE Id = ?";
+	private static final String DELETE_BY_ID = "DELETE FROM seller WHERE Id = ?";
+	private static final String FIND_BY_ID = "SELECT seller.*, department.Name as DepName FROM seller "
+			+ "INNER JOIN department ON seller.DepartmentId = department.id WHERE seller.id = ?";
+	private static final String FIND_BY_DEPARTMENT = "SELECT seller.*, department.Name DepName FROM seller "
+			+ "INNER JOIN department ON department.Id = seller.DepartmentId WHERE DepartmentId = ? ORDER BY Name";
+	private static final String FIND_ALL = "SELECT seller.*, department.Name DepName FROM seller INNER JOIN "
+			+ "department ON seller.departmentId = department.Id ORDER BY Name";
+	private static final String FIND_FIRST_PAGE = "SELECT seller.*, department.Name DepName FROM seller "
+			+ "INNER JOIN department ON seller.DepartmentId = department.Id "
+			+ "ORDER BY seller.Name, seller.Id LIMIT ?";
+	private static final String FIND_NEXT_PAGE = "SELECT seller.*, department.Name DepName FROM seller "
+			+ "INNER JOIN department ON seller.DepartmentId = department.Id "
+			+ "WHERE seller.Name > ? OR (seller.Name = ? AND seller.Id > ?) "
+			+ "ORDER BY seller.Name, seller.Id LIMIT ?";
+	private static final String COUNT = "SELECT COUNT(*) FROM seller";
+	private static final String SEARCH = "SELECT seller.*, department.Name DepName FROM seller "
+			+ "INNER JOIN department ON seller.DepartmentId = department.Id";
+	// fixed column order, read by position straight into the snapshot columns
+	private static final String SNAPSHOT = "SELECT Id, DepartmentId, BaseSalary, BirthDate, Name, Email FROM seller "
+			+ "ORDER BY Id";
+	private static final String FIND_MODIFIED_SINCE = "SELECT seller.*, department.Name DepName FROM seller "
+			+ "INNER JOIN department ON seller.DepartmentId = department.Id WHERE seller.UpdatedAt >= ?";
+
+	private final int batchSize;
+
+	public SellerDaoJDBC() {
+		this(DEFAULT_BATCH_SIZE);
+	}
 
-	public SellerDaoJDBC(Connection conn) {
-		this.conn = conn;
+	public SellerDaoJDBC(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive");
+		}
+		this.batchSize = batchSize;
 	}
 
 	@Override
 	public void insert(Seller seller) {
 
+		Connection conn = null;
 		PreparedStatement ps = null;
+		ResultSet rs = null;
 
 		try {
 
-			ps = conn.prepareStatement("INSERT INTO seller (Name, Email, BirthDate, BaseSalary, DepartmentId) "
-					+ "VALUES (?, ?, ?, ?, ?);", Statement.RETURN_GENERATED_KEYS);
+			conn = DB.getConnection();
+			ps = conn.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS);
 
-			ps.setString(1, seller.getName());
-			ps.setString(2, seller.getEmail());
-			ps.setDate(3, new java.sql.Date(seller.getBirthDate().getTime()));
-			ps.setDouble(4, seller.getBaseSalary());
-			ps.setInt(5, seller.getDepartment().getId());
+			bindSeller(ps, seller);
 
 			int rowsAffected = ps.executeUpdate();
 
 			if (rowsAffected > 0) {
-				ResultSet rs = ps.getGeneratedKeys();
+				rs = ps.getGeneratedKeys();
 				if (rs.next()) {
 					int id = rs.getInt(1);
 					seller.setId(id);
 				}
-				DB.closeResultSet(rs);
 			} else {
 				throw new DbException("Unexpected error, no rows affected.");
 			}
 
-			System.out.println(rowsAffected + " rows affected.");
-
 		} catch (SQLException e) {
 			throw new DbException(e.getMessage());
 		} finally {
+			DB.closeResultSet(rs);
 			DB.closeStatement(ps);
+			DB.closeConnection(conn);
 		}
 
 	}
@@ -66,19 +112,15 @@ public class SellerDaoJDBC implements SellerDao {
 	@Override
 	public void update(Seller seller) {
 
+		Connection conn = null;
 		PreparedStatement ps = null;
 
 		try {
 
-			ps = conn.prepareStatement(
-					"UPDATE seller SET Name = ?, Email = ?, BirthDate = ?, BaseSalary = ?, DepartmentId = ? "
-							+ "WHERE Id = ?;");
+			conn = DB.getConnection();
+			ps = conn.prepareStatement(UPDATE);
 
-			ps.setString(1, seller.getName());
-			ps.setString(2, seller.getEmail());
-			ps.setDate(3, new java.sql.Date(seller.getBirthDate().getTime()));
-			ps.setDouble(4, seller.getBaseSalary());
-			ps.setInt(5, seller.getDepartment().getId());
+			bindSeller(ps, seller);
 			ps.setInt(6, seller.getId());
 
 			ps.executeUpdate();
@@ -87,18 +129,34 @@ public class SellerDaoJDBC implements SellerDao {
 			throw new DbException(e.getMessage());
 		} finally {
 			DB.closeStatement(ps);
+			DB.closeConnection(conn);
 		}
 
 	}
 
+	@Override
+	public void insertAll(Collection<Seller> sellers) {
+		JdbcBatch.execute(INSERT, sellers, batchSize, this::bindSeller, Seller::setId);
+	}
+
+	@Override
+	public void updateAll(Collection<Seller> sellers) {
+		JdbcBatch.execute(UPDATE, sellers, batchSize, (ps, seller) -> {
+			bindSeller(ps, seller);
+			ps.setInt(6, seller.getId());
+		});
+	}
+
 	@Override
 	public void deleteById(Integer id) {
 
+		Connection conn = null;
 		PreparedStatement ps = null;
 
 		try {
 
-			ps = conn.prepareStatement("DELETE FROM seller WHERE Id = ?");
+			conn = DB.getConnection();
+			ps = conn.prepareStatement(DELETE_BY_ID);
 
 			ps.setInt(1, id);
 
@@ -108,28 +166,26 @@ public class SellerDaoJDBC implements SellerDao {
 			throw new DbException(e.getMessage());
 		} finally {
 			DB.closeStatement(ps);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public Seller findById(Integer id) {
 
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 
 		try {
-			st = conn.prepareStatement("SELECT seller.*, department.Name as DepName " + "FROM seller "
-					+ "INNER JOIN department " + "ON seller.DepartmentId = department.id " + "WHERE seller.id = ?;");
+			conn = DB.getConnection();
+			st = conn.prepareStatement(FIND_BY_ID);
 
 			st.setInt(1, id);
 			rs = st.executeQuery();
 
 			if (rs.next()) {
-
-				Department dep = getDBDepartment(rs);
-				Seller seller = getDBSeller(rs, dep);
-
-				return seller;
+				return new SellerRowMapper(rs.getMetaData()).map(rs);
 			}
 
 		} catch (SQLException e) {
@@ -137,6 +193,7 @@ public class SellerDaoJDBC implements SellerDao {
 		} finally {
 			DB.closeResultSet(rs);
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 		return null;
 	}
@@ -144,109 +201,352 @@ public class SellerDaoJDBC implements SellerDao {
 	@Override
 	public List<Seller> findByDepartment(Department department) {
 
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 
 		try {
-			st = conn.prepareStatement(
-					"SELECT seller.*, department.Name DepName " + "FROM seller " + "INNER JOIN department "
-							+ "ON department.Id = seller.DepartmentId " + "WHERE DepartmentId = ? " + "ORDER BY Name;");
+			conn = DB.getConnection();
+			st = conn.prepareStatement(FIND_BY_DEPARTMENT);
 
 			st.setInt(1, department.getId());
 			rs = st.executeQuery();
 
-			List<Seller> sellers = new ArrayList<Seller>();
+			return getDBSellers(rs);
 
-			Map<Integer, Department> map = new HashMap<>();
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
+		}
+	}
 
-			while (rs.next()) {
+	@Override
+	public List<Seller> findAll() {
+
+		Connection conn = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
 
-				Department dep = map.get(rs.getInt("DepartmentId"));
+		try {
 
-				if (dep == null) {
-					dep = getDBDepartment(rs);
-					map.put(rs.getInt("DepartmentId"), dep);
-				}
+			conn = DB.getConnection();
+			ps = conn.prepareStatement(FIND_ALL);
 
-				Seller seller = getDBSeller(rs, dep);
-				sellers.add(seller);
-			}
+			rs = ps.executeQuery();
 
-			return sellers;
+			return getDBSellers(rs);
 
 		} catch (SQLException e) {
+
 			throw new DbException(e.getMessage());
+
 		} finally {
 			DB.closeResultSet(rs);
-			DB.closeStatement(st);
+			DB.closeStatement(ps);
+			DB.closeConnection(conn);
 		}
+
 	}
 
 	@Override
-	public List<Seller> findAll() {
+	public Stream<Seller> streamAll(int fetchSize) {
 
+		Connection conn = null;
 		PreparedStatement ps = null;
 		ResultSet rs = null;
 
 		try {
 
-			ps = conn.prepareStatement("SELECT seller.*, department.Name DepName FROM seller INNER JOIN "
-					+ "department ON seller.departmentId = department.Id ORDER BY Name;");
+			conn = DB.getConnection();
+			ps = conn.prepareStatement(FIND_ALL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(fetchSize);
 
 			rs = ps.executeQuery();
 
-			List<Seller> sellers = new ArrayList<>();
+			Connection streamConn = conn;
+			PreparedStatement streamPs = ps;
+			ResultSet streamRs = rs;
 
-			Map<Integer, Department> map = new HashMap<>();
+			return StreamSupport.stream(new SellerSpliterator(rs), false).onClose(() -> {
+				try {
+					DB.closeResultSet(streamRs);
+					DB.closeStatement(streamPs);
+				} finally {
+					DB.closeConnection(streamConn);
+				}
+			});
 
-			while (rs.next()) {
+		} catch (SQLException e) {
+			DB.closeResultSet(rs);
+			DB.closeStatement(ps);
+			DB.closeConnection(conn);
+			throw new DbException(e.getMessage());
+		}
 
-				Department dep = map.get(rs.getInt("DepartmentId"));
+	}
 
-				if (dep == null) {
-					dep = getDBDepartment(rs);
-					map.put(rs.getInt("DepartmentId"), dep);
-				}
+	@Override
+	public List<Seller> findPage(String afterName, Integer afterId, int limit) {
+
+		Connection conn = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+
+		try {
+
+			conn = DB.getConnection();
 
-				Seller seller = getDBSeller(rs, dep);
-				sellers.add(seller);
+			if (afterName == null || afterId == null) {
+				ps = conn.prepareStatement(FIND_FIRST_PAGE);
+				ps.setInt(1, limit);
+			} else {
+				ps = conn.prepareStatement(FIND_NEXT_PAGE);
+				ps.setString(1, afterName);
+				ps.setString(2, afterName);
+				ps.setInt(3, afterId);
+				ps.setInt(4, limit);
 			}
 
-			return sellers;
+			rs = ps.executeQuery();
+
+			return getDBSellers(rs);
 
 		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(ps);
+			DB.closeConnection(conn);
+		}
+
+	}
+
+	@Override
+	public List<Seller> search(SellerQuery query) {
+
+		Connection conn = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+
+		// only the criteria that are set end up in the statement
+		StringBuilder sql = new StringBuilder(SEARCH);
+		List<Object> params = new ArrayList<>();
+
+		if (query.getNamePrefix() != null) {
+			addPredicate(sql, "seller.Name LIKE ?");
+			params.add(likePrefix(query.getNamePrefix()));
+		}
+		if (query.getEmailPrefix() != null) {
+			addPredicate(sql, "seller.Email LIKE ?");
+			params.add(likePrefix(query.getEmailPrefix()));
+		}
+		if (query.getDepartmentId() != null) {
+			addPredicate(sql, "seller.DepartmentId = ?");
+			params.add(query.getDepartmentId());
+		}
+		if (query.getMinSalary() != null) {
+			addPredicate(sql, "seller.BaseSalary >= ?");
+			params.add(query.getMinSalary());
+		}
+		if (query.getMaxSalary() != null) {
+			addPredicate(sql, "seller.BaseSalary <= ?");
+			params.add(query.getMaxSalary());
+		}
+		if (query.getBornFrom() != null) {
+			addPredicate(sql, "seller.BirthDate >= ?");
+			params.add(java.sql.Date.valueOf(query.getBornFrom()));
+		}
+		if (query.getBornTo() != null) {
+			addPredicate(sql, "seller.BirthDate <= ?");
+			params.add(java.sql.Date.valueOf(query.getBornTo()));
+		}
+		if (query.getAfterName() != null && query.getAfterId() != null) {
+			addPredicate(sql, "(seller.Name > ? OR (seller.Name = ? AND seller.Id > ?))");
+			params.add(query.getAfterName());
+			params.add(query.getAfterName());
+			params.add(query.getAfterId());
+		}
+		sql.append(" ORDER BY seller.Name, seller.Id LIMIT ?");
+		params.add(query.getLimit());
+
+		try {
+
+			conn = DB.getConnection();
+			ps = conn.prepareStatement(sql.toString());
 
+			for (int i = 0; i < params.size(); i++) {
+				ps.setObject(i + 1, params.get(i));
+			}
+
+			QueryCancellation cancellation = query.getCancellation();
+			if (cancellation == null) {
+				rs = ps.executeQuery();
+				return getDBSellers(rs);
+			}
+			cancellation.attach(ps);
+			try {
+				rs = ps.executeQuery();
+				return getDBSellers(rs);
+			} finally {
+				cancellation.detach();
+			}
+
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(ps);
+			DB.closeConnection(conn);
+		}
+
+	}
+
+	@Override
+	public int count() {
+
+		Connection conn = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+
+		try {
+
+			conn = DB.getConnection();
+			ps = conn.prepareStatement(COUNT);
+
+			rs = ps.executeQuery();
+			rs.next();
+
+			return rs.getInt(1);
+
+		} catch (SQLException e) {
 			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(ps);
+			DB.closeConnection(conn);
+		}
+
+	}
+
+	@Override
+	public SellerSnapshot snapshot(int fetchSize) {
+
+		Connection conn = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+
+		try {
+
+			conn = DB.getConnection();
+			ps = conn.prepareStatement(SNAPSHOT, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(fetchSize);
 
+			rs = ps.executeQuery();
+			SellerSnapshot.Builder builder = new SellerSnapshot.Builder(1024);
+
+			while (rs.next()) {
+				builder.add(rs.getInt(1), rs.getInt(2), rs.getDouble(3), rs.getDate(4).toLocalDate().toEpochDay(),
+						rs.getString(5), rs.getString(6));
+			}
+
+			return builder.build();
+
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
 		} finally {
 			DB.closeResultSet(rs);
 			DB.closeStatement(ps);
+			DB.closeConnection(conn);
 		}
 
 	}
 
-	private Department getDBDepartment(ResultSet rs) throws SQLException {
+	@Override
+	public ChangeSet<Seller> findModifiedSince(SyncToken token) {
+
+		Connection conn = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+
+		try {
+
+			conn = DB.getConnection();
+			SyncToken next = SyncQueries.currentToken(conn);
+
+			// without a token there is nothing to compare against, just hand out the starting point
+			if (token == null) {
+				return new ChangeSet<>(Collections.emptyList(), Collections.emptyList(), next);
+			}
+
+			Timestamp since = new Timestamp(token.getQueryFromMillis());
+			ps = conn.prepareStatement(FIND_MODIFIED_SINCE);
+			ps.setTimestamp(1, since);
+
+			rs = ps.executeQuery();
+			List<Seller> changed = getDBSellers(rs);
+			List<Integer> deleted = SyncQueries.deletedIdsSince(conn, "seller", since);
+
+			return new ChangeSet<>(changed, deleted, next);
+
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(ps);
+			DB.closeConnection(conn);
+		}
+
+	}
 
-		Department dp = new Department();
+	private static void addPredicate(StringBuilder sql, String predicate) {
+		sql.append(sql.indexOf(" WHERE ") < 0 ? " WHERE " : " AND ").append(predicate);
+	}
 
-		dp.setId(rs.getInt("DepartmentId"));
-		dp.setName(rs.getString("DepName"));
+	private static String likePrefix(String prefix) {
+		return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+	}
 
-		return dp;
+	// package-private so the mapping can be benchmarked on its own
+	List<Seller> getDBSellers(ResultSet rs) throws SQLException {
+		return RowMapper.list(rs, new SellerRowMapper(rs.getMetaData()));
 	}
 
-	private Seller getDBSeller(ResultSet rs, Department dep) throws SQLException {
+	private static class SellerSpliterator extends Spliterators.AbstractSpliterator<Seller> {
+
+		private final ResultSet rs;
+		private final SellerRowMapper mapper;
+
+		SellerSpliterator(ResultSet rs) throws SQLException {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+			this.rs = rs;
+			this.mapper = new SellerRowMapper(rs.getMetaData());
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Seller> action) {
+			try {
+				if (!rs.next()) {
+					return false;
+				}
 
-		Seller seller = new Seller();
+				action.accept(mapper.map(rs));
+				return true;
 
-		seller.setId(rs.getInt("Id"));
-		seller.setName(rs.getString("Name"));
-		seller.setEmail(rs.getString("Email"));
-		seller.setBirthDate(new java.util.Date(rs.getTimestamp("BirthDate").getTime()));
-		seller.setBaseSalary(rs.getDouble("BaseSalary"));
-		seller.setDepartment(dep);
+			} catch (SQLException e) {
+				throw new DbException(e.getMessage());
+			}
+		}
+	}
 
-		return seller;
+	private void bindSeller(PreparedStatement ps, Seller seller) throws SQLException {
+		ps.setString(1, seller.getName());
+		ps.setString(2, seller.getEmail());
+		ps.setDate(3, new java.sql.Date(seller.getBirthDate().getTime()));
+		ps.setDouble(4, seller.getBaseSalary());
+		ps.setInt(5, seller.getDepartment().getId());
 	}
 
 }
@@ -0,0 +1,60 @@
+package model.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import model.dao.DepartmentCache;
+import model.entities.Department;
+import model.entities.Seller;
+
+// expects seller.* joined with department.Name as DepName
+class SellerRowMapper implements RowMapper<Seller> {
+
+	private final int id;
+	private final int name;
+	private final int email;
+	private final int birthDate;
+	private final int baseSalary;
+	private final int departmentId;
+	private final int depName;
+
+	// departments already seen in this result, so each is only looked up once
+	private final Map<Integer, Department> departments = new HashMap<>();
+
+	SellerRowMapper(ResultSetMetaData meta) throws SQLException {
+		id = RowMapper.column(meta, "Id");
+		name = RowMapper.column(meta, "Name");
+		email = RowMapper.column(meta, "Email");
+		birthDate = RowMapper.column(meta, "BirthDate");
+		baseSalary = RowMapper.column(meta, "BaseSalary");
+		departmentId = RowMapper.column(meta, "DepartmentId");
+		depName = RowMapper.column(meta, "DepName");
+	}
+
+	@Override
+	public Seller map(ResultSet rs) throws SQLException {
+
+		int depId = rs.getInt(departmentId);
+		Department dep = departments.get(depId);
+
+		if (dep == null) {
+			dep = DepartmentCache.getInstance().canonical(depId, rs.getString(depName));
+			departments.put(depId, dep);
+		}
+
+		Seller seller = new Seller();
+
+		seller.setId(rs.getInt(id));
+		seller.setName(rs.getString(name));
+		seller.setEmail(rs.getString(email));
+		seller.setBirthDate(new java.util.Date(rs.getTimestamp(birthDate).getTime()));
+		seller.setBaseSalary(rs.getDouble(baseSalary));
+		seller.setDepartment(dep);
+
+		return seller;
+	}
+
+}
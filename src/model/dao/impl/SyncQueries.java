@@ -0,0 +1,52 @@
+package model.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import db.DB;
+import model.dao.SyncToken;
+
+class SyncQueries {
+
+	private static final String SERVER_TIME = "SELECT NOW(3)";
+	private static final String DELETED_SINCE = "SELECT RowId FROM deleted_row WHERE TableName = ? AND DeletedAt >= ?";
+
+	static SyncToken currentToken(Connection conn) throws SQLException {
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			ps = conn.prepareStatement(SERVER_TIME);
+			rs = ps.executeQuery();
+			rs.next();
+			return new SyncToken(rs.getTimestamp(1).getTime());
+		} finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(ps);
+		}
+	}
+
+	static List<Integer> deletedIdsSince(Connection conn, String table, Timestamp since) throws SQLException {
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			ps = conn.prepareStatement(DELETED_SINCE);
+			ps.setString(1, table);
+			ps.setTimestamp(2, since);
+			rs = ps.executeQuery();
+			List<Integer> ids = new ArrayList<>();
+			while (rs.next()) {
+				ids.add(rs.getInt(1));
+			}
+			return ids;
+		} finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(ps);
+		}
+	}
+
+}
@@ -0,0 +1,195 @@
+package model.dao.metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import db.ConnectionPool;
+import db.DB;
+import db.Jmx;
+import model.analytics.SellerSnapshot;
+import model.dao.ChangeSet;
+
+public class DaoMetrics {
+
+	private static final Logger LOG = Logger.getLogger(DaoMetrics.class.getName());
+	private static final DaoMetrics INSTANCE = new DaoMetrics();
+
+	private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+	private final Map<Method, MethodMetrics> byMethod = new ConcurrentHashMap<>();
+	private ScheduledExecutorService dumper;
+
+	public static DaoMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	// times every call of the interface methods, metrics.enabled=false hands back the DAO itself
+	public static <T> T decorate(Class<T> daoInterface, T dao) {
+		if ("false".equalsIgnoreCase(DB.getProperties().getProperty("metrics.enabled"))) {
+			return dao;
+		}
+		INSTANCE.startDumper();
+		Object proxy = Proxy.newProxyInstance(daoInterface.getClassLoader(), new Class<?>[] { daoInterface },
+				INSTANCE.new Handler(daoInterface.getSimpleName(), dao));
+		return daoInterface.cast(proxy);
+	}
+
+	// sorted by name
+	public List<MethodMetrics> getMethods() {
+		return new ArrayList<>(new TreeMap<>(methods).values());
+	}
+
+	public void reset() {
+		for (MethodMetrics metrics : methods.values()) {
+			metrics.reset();
+		}
+	}
+
+	// written to a temporary file first, so a reader never sees half a dump
+	public void dump(Path file) throws IOException {
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+			out.write("# DAO metrics " + LocalDateTime.now());
+			out.newLine();
+			out.write("method,calls,errors,rows,meanMillis,p50Millis,p99Millis,maxMillis");
+			out.newLine();
+			for (MethodMetrics m : getMethods()) {
+				out.write(String.format(Locale.ROOT, "%s,%d,%d,%d,%.3f,%.3f,%.3f,%.3f", m.getName(), m.getCalls(),
+						m.getErrors(), m.getRows(), m.getMeanMillis(), m.getP50Millis(), m.getP99Millis(),
+						m.getMaxMillis()));
+				out.newLine();
+			}
+			ConnectionPool pool = DB.getPool();
+			out.write("# connection pool");
+			out.newLine();
+			out.write(String.format(Locale.ROOT,
+					"active=%d,idle=%d,total=%d,waiting=%d,max=%d,statementCacheHits=%d,statementCacheMisses=%d,"
+							+ "statementCacheEvictions=%d",
+					pool.getActiveCount(), pool.getIdleCount(), pool.getTotalCount(), pool.getWaitingCount(),
+					pool.getMaxSize(), pool.getStatementCacheHits(), pool.getStatementCacheMisses(),
+					pool.getStatementCacheEvictions()));
+			out.newLine();
+		}
+		Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	MethodMetrics metrics(String name) {
+		return methods.computeIfAbsent(name, key -> {
+			MethodMetrics metrics = new MethodMetrics(key);
+			Jmx.register("type=DaoMethod,name=" + key, metrics);
+			return metrics;
+		});
+	}
+
+	// metrics.dumpFile and metrics.dumpIntervalSeconds, off unless both are set
+	private synchronized void startDumper() {
+		if (dumper != null) {
+			return;
+		}
+		String file = DB.getProperties().getProperty("metrics.dumpFile");
+		long interval = DB.getLongProperty("metrics.dumpIntervalSeconds", 0);
+		if (file == null || interval <= 0) {
+			return;
+		}
+		Path path = Paths.get(file);
+		dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "dao-metrics-dump");
+			t.setDaemon(true);
+			return t;
+		});
+		dumper.scheduleWithFixedDelay(() -> {
+			try {
+				dump(path);
+			} catch (IOException | RuntimeException e) {
+				LOG.log(Level.WARNING, "Could not dump DAO metrics to " + path, e);
+			}
+		}, interval, interval, TimeUnit.SECONDS);
+	}
+
+	// rows read for queries, rows written for void methods taking an entity or a collection
+	private static long rows(Object result, Object[] args, Class<?> returnType) {
+		if (result instanceof Collection) {
+			return ((Collection<?>) result).size();
+		}
+		if (result instanceof ChangeSet) {
+			ChangeSet<?> changes = (ChangeSet<?>) result;
+			return changes.getChanged().size() + changes.getDeletedIds().size();
+		}
+		if (result instanceof SellerSnapshot) {
+			return ((SellerSnapshot) result).size();
+		}
+		if (returnType == void.class) {
+			if (args != null && args.length > 0 && args[0] instanceof Collection) {
+				return ((Collection<?>) args[0]).size();
+			}
+			return 1;
+		}
+		return result == null ? 0 : 1;
+	}
+
+	private class Handler implements InvocationHandler {
+
+		private final String daoName;
+		private final Object target;
+
+		Handler(String daoName, Object target) {
+			this.daoName = daoName;
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (method.getDeclaringClass() == Object.class) {
+				return invokeTarget(method, args);
+			}
+
+			MethodMetrics metrics = byMethod.computeIfAbsent(method, m -> metrics(daoName + "." + m.getName()));
+			long start = System.nanoTime();
+			Object result;
+			try {
+				result = invokeTarget(method, args);
+			} catch (Throwable e) {
+				metrics.record(System.nanoTime() - start, 0, true);
+				throw e;
+			}
+			if (result instanceof Stream) {
+				// the rows arrive while the caller consumes the stream
+				metrics.record(System.nanoTime() - start, 0, false);
+				return ((Stream<?>) result).peek(item -> metrics.addRows(1));
+			}
+			metrics.record(System.nanoTime() - start, rows(result, args, method.getReturnType()), false);
+			return result;
+		}
+
+		private Object invokeTarget(Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+
+}
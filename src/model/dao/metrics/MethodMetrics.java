@@ -0,0 +1,78 @@
+package model.dao.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class MethodMetrics implements MethodMetricsMXBean {
+
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+	private final String name;
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder rows = new LongAdder();
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	MethodMetrics(String name) {
+		this.name = name;
+	}
+
+	void record(long nanos, long rowCount, boolean failed) {
+		latency.record(nanos);
+		rows.add(rowCount);
+		if (failed) {
+			errors.increment();
+		}
+	}
+
+	// rows that arrive after the call returned, from a stream
+	void addRows(long rowCount) {
+		rows.add(rowCount);
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public long getCalls() {
+		return latency.getCount();
+	}
+
+	@Override
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	@Override
+	public long getRows() {
+		return rows.sum();
+	}
+
+	@Override
+	public double getMeanMillis() {
+		return latency.getMeanNanos() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getP50Millis() {
+		return latency.getPercentileNanos(50) / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getP99Millis() {
+		return latency.getPercentileNanos(99) / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getMaxMillis() {
+		return latency.getMaxNanos() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public void reset() {
+		errors.reset();
+		rows.reset();
+		latency.reset();
+	}
+
+}
@@ -0,0 +1,16 @@
+package model.dao.metrics;
+
+// published as workshop:type=DaoMethod,name=<Dao>.<method>
+public interface MethodMetricsMXBean {
+
+	String getName();
+	long getCalls();
+	long getErrors();
+	long getRows();
+	double getMeanMillis();
+	double getP50Millis();
+	double getP99Millis();
+	double getMaxMillis();
+	void reset();
+
+}
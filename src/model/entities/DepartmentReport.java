@@ -0,0 +1,86 @@
+package model.entities;
+
+import java.io.Serializable;
+
+public class DepartmentReport implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Department department;
+	private int headcount;
+	private double totalSalary;
+	private Double avgSalary;
+	private Double minSalary;
+	private Double maxSalary;
+	private int under30;
+	private int from30To39;
+	private int from40To49;
+	private int from50;
+
+	public DepartmentReport(Department department, int headcount, double totalSalary, Double avgSalary,
+			Double minSalary, Double maxSalary, int under30, int from30To39, int from40To49, int from50) {
+		this.department = department;
+		this.headcount = headcount;
+		this.totalSalary = totalSalary;
+		this.avgSalary = avgSalary;
+		this.minSalary = minSalary;
+		this.maxSalary = maxSalary;
+		this.under30 = under30;
+		this.from30To39 = from30To39;
+		this.from40To49 = from40To49;
+		this.from50 = from50;
+	}
+
+	public Department getDepartment() {
+		return department;
+	}
+
+	public String getDepartmentName() {
+		return department.getName();
+	}
+
+	public int getHeadcount() {
+		return headcount;
+	}
+
+	public double getTotalSalary() {
+		return totalSalary;
+	}
+
+	// null for a department without sellers
+	public Double getAvgSalary() {
+		return avgSalary;
+	}
+
+	public Double getMinSalary() {
+		return minSalary;
+	}
+
+	public Double getMaxSalary() {
+		return maxSalary;
+	}
+
+	public int getUnder30() {
+		return under30;
+	}
+
+	public int getFrom30To39() {
+		return from30To39;
+	}
+
+	public int getFrom40To49() {
+		return from40To49;
+	}
+
+	public int getFrom50() {
+		return from50;
+	}
+
+	@Override
+	public String toString() {
+		return "DepartmentReport [department=" + department + ", headcount=" + headcount + ", totalSalary="
+				+ totalSalary + ", avgSalary=" + avgSalary + ", minSalary=" + minSalary + ", maxSalary=" + maxSalary
+				+ ", under30=" + under30 + ", from30To39=" + from30To39 + ", from40To49=" + from40To49 + ", from50="
+				+ from50 + "]";
+	}
+
+}
@@ -0,0 +1,74 @@
+package model.entities;
+
+import java.io.Serializable;
+
+public class PayrollProjection implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private String period;
+	private Integer sellerId;
+	private Integer departmentId;
+	private double baseSalary;
+	private double gross;
+	private double bonus;
+	private double tax;
+
+	public PayrollProjection(String period, Seller seller) {
+		this.period = period;
+		this.sellerId = seller.getId();
+		this.departmentId = seller.getDepartment().getId();
+		this.baseSalary = seller.getBaseSalary();
+		this.gross = baseSalary;
+	}
+
+	public String getPeriod() {
+		return period;
+	}
+
+	public Integer getSellerId() {
+		return sellerId;
+	}
+
+	public Integer getDepartmentId() {
+		return departmentId;
+	}
+
+	public double getBaseSalary() {
+		return baseSalary;
+	}
+
+	public double getGross() {
+		return gross;
+	}
+
+	public void setGross(double gross) {
+		this.gross = gross;
+	}
+
+	public double getBonus() {
+		return bonus;
+	}
+
+	public void setBonus(double bonus) {
+		this.bonus = bonus;
+	}
+
+	public double getTax() {
+		return tax;
+	}
+
+	public void setTax(double tax) {
+		this.tax = tax;
+	}
+
+	public double getNet() {
+		return gross + bonus - tax;
+	}
+
+	@Override
+	public String toString() {
+		return "PayrollProjection [period=" + period + ", sellerId=" + sellerId + ", departmentId=" + departmentId
+				+ ", baseSalary=" + baseSalary + ", gross=" + gross + ", bonus=" + bonus + ", tax=" + tax + "]";
+	}
+
+}
@@ -0,0 +1,82 @@
+package model.imports;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CsvReader implements Closeable {
+
+	private final BufferedReader reader;
+	private final char separator;
+	private long lineNumber = 0;
+
+	public CsvReader(BufferedReader reader, char separator) {
+		this.reader = reader;
+		this.separator = separator;
+	}
+
+	// returns null at end of input, quoted fields may span several lines
+	public String[] next() throws IOException {
+		String line = reader.readLine();
+		if (line == null) {
+			return null;
+		}
+		lineNumber++;
+
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		int i = 0;
+
+		while (true) {
+			if (i == line.length()) {
+				if (!quoted) {
+					break;
+				}
+				line = reader.readLine();
+				if (line == null) {
+					throw new IOException("Unterminated quoted field at line " + lineNumber);
+				}
+				lineNumber++;
+				field.append('\n');
+				i = 0;
+				continue;
+			}
+			char c = line.charAt(i++);
+			if (quoted) {
+				if (c == '"') {
+					if (i < line.length() && line.charAt(i) == '"') {
+						field.append('"');
+						i++;
+					} else {
+						quoted = false;
+					}
+				} else {
+					field.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == separator) {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+
+		return fields.toArray(new String[fields.size()]);
+	}
+
+	public long getLineNumber() {
+		return lineNumber;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+}
@@ -0,0 +1,7 @@
+package model.imports;
+
+public interface ImportProgressListener {
+
+	void onProgress(long rowsRead, long rowsImported, long rowsRejected);
+
+}
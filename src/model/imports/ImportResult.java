@@ -0,0 +1,43 @@
+package model.imports;
+
+public class ImportResult {
+
+	private final long rowsRead;
+	private final long rowsImported;
+	private final long rowsRejected;
+	private final long elapsedMillis;
+
+	public ImportResult(long rowsRead, long rowsImported, long rowsRejected, long elapsedMillis) {
+		this.rowsRead = rowsRead;
+		this.rowsImported = rowsImported;
+		this.rowsRejected = rowsRejected;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public long getRowsRead() {
+		return rowsRead;
+	}
+
+	public long getRowsImported() {
+		return rowsImported;
+	}
+
+	public long getRowsRejected() {
+		return rowsRejected;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public double getRowsPerSecond() {
+		return elapsedMillis == 0 ? rowsRead : rowsRead * 1000.0 / elapsedMillis;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ImportResult [rowsRead=%d, rowsImported=%d, rowsRejected=%d, elapsed=%d ms, %.1f rows/s]",
+				rowsRead, rowsImported, rowsRejected, elapsedMillis, getRowsPerSecond());
+	}
+
+}
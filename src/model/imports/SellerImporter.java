@@ -0,0 +1,377 @@
+package model.imports;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import db.DbException;
+import db.UnitOfWork;
+import model.dao.DepartmentCache;
+import model.dao.DepartmentDao;
+import model.dao.SellerDao;
+import model.entities.Department;
+import model.entities.Seller;
+import model.exceptions.ValidationException;
+import model.services.SellerValidator;
+
+public class SellerImporter {
+
+	private static final List<Row> END_OF_INPUT = new ArrayList<>();
+	private static final long HANDOFF_POLL_MILLIS = 200;
+
+	private final SellerDao sellerDao;
+	private final DepartmentDao departmentDao;
+
+	private int chunkSize = 500;
+	private int queueCapacity = 4;
+	private char separator = ',';
+	private DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+	private boolean createMissingDepartments = false;
+	private ImportProgressListener progressListener;
+
+	private final AtomicLong rowsRead = new AtomicLong();
+	private final AtomicLong rowsImported = new AtomicLong();
+	private final AtomicLong rowsRejected = new AtomicLong();
+	private Map<String, Department> departments;
+	private BufferedWriter errorReport;
+	private final Object errorReportLock = new Object();
+	private volatile RuntimeException writerFailure;
+
+	public SellerImporter(SellerDao sellerDao, DepartmentDao departmentDao) {
+		this.sellerDao = sellerDao;
+		this.departmentDao = departmentDao;
+	}
+
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public void setSeparator(char separator) {
+		this.separator = separator;
+	}
+
+	public void setDatePattern(String pattern) {
+		this.dateFormatter = DateTimeFormatter.ofPattern(pattern);
+	}
+
+	public void setCreateMissingDepartments(boolean createMissingDepartments) {
+		this.createMissingDepartments = createMissingDepartments;
+	}
+
+	public void setProgressListener(ImportProgressListener progressListener) {
+		this.progressListener = progressListener;
+	}
+
+	// the file is read and validated on the calling thread while a writer thread inserts the chunks
+	public synchronized ImportResult importFile(Path csvFile, Path errorReportFile) throws IOException {
+		rowsRead.set(0);
+		rowsImported.set(0);
+		rowsRejected.set(0);
+		writerFailure = null;
+		departments = loadDepartments();
+
+		long start = System.currentTimeMillis();
+
+		BlockingQueue<List<Row>> queue = new ArrayBlockingQueue<>(queueCapacity);
+		Thread writer = new Thread(() -> writeChunks(queue), "seller-import-writer");
+		// an import that is abandoned halfway never keeps the application from exiting
+		writer.setDaemon(true);
+
+		try (CsvReader reader = new CsvReader(Files.newBufferedReader(csvFile, StandardCharsets.UTF_8), separator);
+				BufferedWriter report = Files.newBufferedWriter(errorReportFile, StandardCharsets.UTF_8)) {
+
+			errorReport = report;
+			writeError(0, "field", "message");
+			writer.start();
+
+			try {
+				readChunks(reader, queue, writer);
+			} finally {
+				finish(queue, writer);
+			}
+		} finally {
+			errorReport = null;
+		}
+		if (writerFailure != null) {
+			throw writerFailure;
+		}
+
+		long elapsed = System.currentTimeMillis() - start;
+		return new ImportResult(rowsRead.get(), rowsImported.get(), rowsRejected.get(), elapsed);
+	}
+
+	private void readChunks(CsvReader reader, BlockingQueue<List<Row>> queue, Thread writer) throws IOException {
+		String[] header = reader.next();
+		if (header == null) {
+			return;
+		}
+		Map<String, Integer> columns = new HashMap<>();
+		for (int i = 0; i < header.length; i++) {
+			columns.put(header[i].trim().toLowerCase(Locale.ROOT), i);
+		}
+		for (String required : new String[] { "name", "email", "birthdate", "basesalary", "department" }) {
+			if (!columns.containsKey(required)) {
+				throw new IOException("Missing column " + required + " in " + String.join(",", header));
+			}
+		}
+
+		List<Row> chunk = new ArrayList<>(chunkSize);
+		String[] fields;
+		while ((fields = reader.next()) != null) {
+			rowsRead.incrementAndGet();
+			long line = reader.getLineNumber();
+			try {
+				Seller seller = toSeller(fields, columns);
+				chunk.add(new Row(line, seller));
+			} catch (ValidationException e) {
+				rowsRejected.incrementAndGet();
+				for (Map.Entry<String, String> error : e.getErrors().entrySet()) {
+					writeError(line, error.getKey(), error.getValue());
+				}
+			}
+			if (chunk.size() == chunkSize) {
+				put(queue, chunk, writer);
+				chunk = new ArrayList<>(chunkSize);
+			}
+		}
+		if (!chunk.isEmpty()) {
+			put(queue, chunk, writer);
+		}
+	}
+
+	private Seller toSeller(String[] fields, Map<String, Integer> columns) {
+		LocalDate birthDate = null;
+		String birthDateText = field(fields, columns, "birthdate");
+		boolean invalidDate = false;
+		if (birthDateText != null && !birthDateText.trim().isEmpty()) {
+			try {
+				birthDate = LocalDate.parse(birthDateText.trim(), dateFormatter);
+			} catch (DateTimeParseException e) {
+				invalidDate = true;
+			}
+		}
+
+		String depName = field(fields, columns, "department");
+		Department dep = resolveDepartment(depName);
+		String name = trim(field(fields, columns, "name"));
+		String email = trim(field(fields, columns, "email"));
+		String baseSalary = field(fields, columns, "basesalary");
+
+		ValidationException exception = new ValidationException("Validation Exception");
+		Seller seller = null;
+		try {
+			seller = SellerValidator.validate(null, name, email, birthDate, baseSalary, dep);
+		} catch (ValidationException e) {
+			exception.getErrors().putAll(e.getErrors());
+		}
+
+		// the form's text fields cannot produce these, a file can
+		if (name != null && name.length() > SellerValidator.NAME_MAX_LENGTH) {
+			exception.addError("name", "Longer than " + SellerValidator.NAME_MAX_LENGTH + " characters");
+		}
+		if (email != null && email.length() > SellerValidator.EMAIL_MAX_LENGTH) {
+			exception.addError("email", "Longer than " + SellerValidator.EMAIL_MAX_LENGTH + " characters");
+		}
+		if (baseSalary != null && !baseSalary.trim().isEmpty() && !isNumber(baseSalary)) {
+			exception.addError("baseSalary", "Invalid number " + baseSalary);
+		}
+		if (invalidDate) {
+			exception.addError("birthDate", "Invalid date " + birthDateText);
+		}
+		if (dep == null && depName != null && !depName.trim().isEmpty()) {
+			exception.addError("department", "Unknown department " + depName);
+		}
+
+		if (exception.getErrors().size() > 0) {
+			throw exception;
+		}
+		return seller;
+	}
+
+	private Department resolveDepartment(String name) {
+		if (name == null || name.trim().isEmpty()) {
+			return null;
+		}
+		String key = name.trim().toLowerCase(Locale.ROOT);
+		Department dep = departments.get(key);
+		if (dep == null && createMissingDepartments) {
+			dep = new Department(null, name.trim());
+			departmentDao.insert(dep);
+			dep = DepartmentCache.getInstance().put(dep);
+			departments.put(key, dep);
+		}
+		return dep;
+	}
+
+	private Map<String, Department> loadDepartments() {
+		Map<String, Department> map = new HashMap<>();
+		for (Department dep : departmentDao.findAll()) {
+			map.put(dep.getName().trim().toLowerCase(Locale.ROOT), dep);
+		}
+		return map;
+	}
+
+	private void writeChunks(BlockingQueue<List<Row>> queue) {
+		while (true) {
+			List<Row> chunk;
+			try {
+				chunk = queue.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			if (chunk == END_OF_INPUT) {
+				return;
+			}
+			if (writerFailure != null) {
+				// keep draining so the reader never blocks on a full queue
+				continue;
+			}
+
+			try {
+				writeChunk(chunk);
+			} catch (RuntimeException e) {
+				writerFailure = e;
+			}
+		}
+	}
+
+	private void writeChunk(List<Row> chunk) {
+		List<Seller> sellers = new ArrayList<>(chunk.size());
+		for (Row row : chunk) {
+			sellers.add(row.seller);
+		}
+		try {
+			UnitOfWork.run(() -> sellerDao.insertAll(sellers));
+			rowsImported.addAndGet(sellers.size());
+		} catch (DbException e) {
+			// the chunk was rolled back, its rows are tried one at a time so the report names the ones refused
+			for (Row row : chunk) {
+				row.seller.setId(null);
+			}
+			for (Row row : chunk) {
+				writeRow(row);
+			}
+		}
+
+		if (progressListener != null) {
+			progressListener.onProgress(rowsRead.get(), rowsImported.get(), rowsRejected.get());
+		}
+	}
+
+	private void writeRow(Row row) {
+		try {
+			sellerDao.insert(row.seller);
+			rowsImported.incrementAndGet();
+		} catch (DbException e) {
+			row.seller.setId(null);
+			rowsRejected.incrementAndGet();
+			writeError(row.line, "database", e.getMessage());
+		}
+	}
+
+	private void writeError(long line, String field, String message) {
+		synchronized (errorReportLock) {
+			try {
+				errorReport.write(line == 0 ? "line" : String.valueOf(line));
+				errorReport.write(separator);
+				errorReport.write(quote(field));
+				errorReport.write(separator);
+				errorReport.write(quote(message));
+				errorReport.newLine();
+			} catch (IOException e) {
+				throw new DbException("Could not write error report: " + e.getMessage());
+			}
+		}
+	}
+
+	private String quote(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.indexOf(separator) < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	private static String field(String[] fields, Map<String, Integer> columns, String column) {
+		int index = columns.get(column);
+		return index < fields.length ? fields[index] : null;
+	}
+
+	private static String trim(String value) {
+		return value == null ? null : value.trim();
+	}
+
+	private static boolean isNumber(String str) {
+		try {
+			Double.parseDouble(str);
+			return true;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	// waits for room in the queue only as long as the writer is there to make it
+	private static void put(BlockingQueue<List<Row>> queue, List<Row> chunk, Thread writer) {
+		try {
+			while (!queue.offer(chunk, HANDOFF_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+				if (!writer.isAlive()) {
+					throw new DbException("Import writer stopped");
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DbException("Import interrupted");
+		}
+	}
+
+	// an interrupted reader cannot hand over END_OF_INPUT, so the writer is interrupted instead of awaited
+	private static void finish(BlockingQueue<List<Row>> queue, Thread writer) {
+		if (Thread.currentThread().isInterrupted()) {
+			writer.interrupt();
+			throw new DbException("Import interrupted");
+		}
+		if (writer.isAlive()) {
+			put(queue, END_OF_INPUT, writer);
+		}
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			writer.interrupt();
+			Thread.currentThread().interrupt();
+			throw new DbException("Import interrupted");
+		}
+	}
+
+	private static class Row {
+
+		private final long line;
+		private final Seller seller;
+
+		Row(long line, Seller seller) {
+			this.line = line;
+			this.seller = seller;
+		}
+	}
+
+}
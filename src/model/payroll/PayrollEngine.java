@@ -0,0 +1,236 @@
+package model.payroll;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import db.DbException;
+import db.UnitOfWork;
+import model.dao.PayrollDao;
+import model.dao.SellerDao;
+import model.dao.impl.SellerDaoJDBC;
+import model.entities.PayrollProjection;
+import model.entities.Seller;
+
+public class PayrollEngine {
+
+	private static final Logger LOG = Logger.getLogger(PayrollEngine.class.getName());
+
+	// sellers per task below which a chunk is no longer split
+	private static final int SPLIT_THRESHOLD = 256;
+	private static final Chunk END_OF_INPUT = new Chunk(null, null);
+	// handed over when reading fails, the writer rolls the period back instead of committing what it has
+	private static final Chunk ABORT = new Chunk(null, null);
+	private static final long HANDOFF_POLL_MILLIS = 200;
+
+	private final SellerDao sellerDao;
+	private final PayrollDao payrollDao;
+	private final ForkJoinPool pool;
+
+	private int chunkSize = 5000;
+	private int queueCapacity = 4;
+	private int fetchSize = SellerDaoJDBC.STREAMING_FETCH_SIZE;
+
+	private final LongAdder computeNanos = new LongAdder();
+	private volatile RuntimeException writerFailure;
+	private long writeNanos;
+
+	public PayrollEngine(SellerDao sellerDao, PayrollDao payrollDao, ForkJoinPool pool) {
+		this.sellerDao = sellerDao;
+		this.payrollDao = payrollDao;
+		this.pool = pool;
+	}
+
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public void setFetchSize(int fetchSize) {
+		this.fetchSize = fetchSize;
+	}
+
+	// reads on the calling thread, computes each chunk on the pool and writes the chunks in order on a writer thread;
+	// the writer replaces the period in one transaction, a failed run leaves the previous projections in place
+	public synchronized PayrollResult run(PayrollPlan plan, String period) {
+		computeNanos.reset();
+		writerFailure = null;
+		writeNanos = 0;
+
+		long start = System.nanoTime();
+		BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(queueCapacity);
+		Thread writer = new Thread(() -> writePeriod(period, queue), "payroll-writer");
+		// a run that is abandoned halfway never keeps the application from exiting
+		writer.setDaemon(true);
+		writer.start();
+
+		long sellers = 0;
+		long readNanos = 0;
+		boolean complete = false;
+		try (Stream<Seller> stream = sellerDao.streamAll(fetchSize)) {
+			Iterator<Seller> it = stream.iterator();
+			while (writerFailure == null) {
+				long readStart = System.nanoTime();
+				List<Seller> chunk = new ArrayList<>(chunkSize);
+				while (chunk.size() < chunkSize && it.hasNext()) {
+					chunk.add(it.next());
+				}
+				readNanos += System.nanoTime() - readStart;
+				if (chunk.isEmpty()) {
+					break;
+				}
+				sellers += chunk.size();
+
+				PayrollProjection[] projections = new PayrollProjection[chunk.size()];
+				ForkJoinTask<Void> task = pool.submit(new ProjectTask(plan, period, chunk, projections, 0, chunk.size()));
+				put(queue, new Chunk(task, projections), writer);
+			}
+			complete = true;
+		} finally {
+			finish(queue, writer, complete);
+		}
+		if (writerFailure != null) {
+			throw writerFailure;
+		}
+
+		long elapsed = System.nanoTime() - start;
+		PayrollResult result = new PayrollResult(period, sellers, TimeUnit.NANOSECONDS.toMillis(elapsed),
+				TimeUnit.NANOSECONDS.toMillis(readNanos), TimeUnit.NANOSECONDS.toMillis(computeNanos.sum()),
+				TimeUnit.NANOSECONDS.toMillis(writeNanos), pool.getParallelism());
+		LOG.info(result.toString());
+		return result;
+	}
+
+	// the reader stops handing over chunks once the writer has failed and left
+	private void writePeriod(String period, BlockingQueue<Chunk> queue) {
+		try {
+			UnitOfWork.run(() -> {
+				long deleteStart = System.nanoTime();
+				payrollDao.deletePeriod(period);
+				writeNanos += System.nanoTime() - deleteStart;
+
+				while (true) {
+					Chunk chunk;
+					try {
+						chunk = queue.take();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new DbException("Payroll run interrupted");
+					}
+					if (chunk == END_OF_INPUT) {
+						return;
+					}
+					if (chunk == ABORT) {
+						throw new DbException("Payroll run aborted");
+					}
+					chunk.task.join();
+					long writeStart = System.nanoTime();
+					payrollDao.insertAll(Arrays.asList(chunk.projections));
+					writeNanos += System.nanoTime() - writeStart;
+				}
+			});
+		} catch (RuntimeException e) {
+			writerFailure = e;
+		}
+	}
+
+	private class ProjectTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final PayrollPlan plan;
+		private final String period;
+		private final List<Seller> sellers;
+		private final PayrollProjection[] projections;
+		private final int from;
+		private final int to;
+
+		ProjectTask(PayrollPlan plan, String period, List<Seller> sellers, PayrollProjection[] projections, int from,
+				int to) {
+			this.plan = plan;
+			this.period = period;
+			this.sellers = sellers;
+			this.projections = projections;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > SPLIT_THRESHOLD) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new ProjectTask(plan, period, sellers, projections, from, middle),
+						new ProjectTask(plan, period, sellers, projections, middle, to));
+				return;
+			}
+
+			long start = System.nanoTime();
+			for (int i = from; i < to; i++) {
+				Seller seller = sellers.get(i);
+				PayrollProjection projection = new PayrollProjection(period, seller);
+				for (PayrollRule rule : plan.rulesFor(seller.getDepartment().getId())) {
+					rule.apply(seller, projection);
+				}
+				projections[i] = projection;
+			}
+			computeNanos.add(System.nanoTime() - start);
+		}
+	}
+
+	// waits for room in the queue only as long as the writer is there to make it
+	private void put(BlockingQueue<Chunk> queue, Chunk chunk, Thread writer) {
+		try {
+			while (!queue.offer(chunk, HANDOFF_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+				if (!writer.isAlive()) {
+					RuntimeException failure = writerFailure;
+					throw failure != null ? failure : new DbException("Payroll writer stopped");
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DbException("Payroll run interrupted");
+		}
+	}
+
+	// an interrupted reader cannot hand over END_OF_INPUT, so the writer is interrupted and rolls back instead
+	private void finish(BlockingQueue<Chunk> queue, Thread writer, boolean complete) {
+		if (Thread.currentThread().isInterrupted()) {
+			writer.interrupt();
+			throw new DbException("Payroll run interrupted");
+		}
+		if (writer.isAlive()) {
+			put(queue, complete ? END_OF_INPUT : ABORT, writer);
+		}
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			writer.interrupt();
+			Thread.currentThread().interrupt();
+			throw new DbException("Payroll run interrupted");
+		}
+	}
+
+	private static class Chunk {
+
+		private final ForkJoinTask<Void> task;
+		private final PayrollProjection[] projections;
+
+		Chunk(ForkJoinTask<Void> task, PayrollProjection[] projections) {
+			this.task = task;
+			this.projections = projections;
+		}
+	}
+
+}
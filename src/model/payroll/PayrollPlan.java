@@ -0,0 +1,57 @@
+package model.payroll;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import model.entities.Department;
+
+public class PayrollPlan {
+
+	private final List<ScopedRule> rules = new CopyOnWriteArrayList<>();
+	private final Map<Integer, PayrollRule[]> rulesByDepartment = new ConcurrentHashMap<>();
+
+	// applies to every seller
+	public PayrollPlan addRule(PayrollRule rule) {
+		return add(null, rule);
+	}
+
+	public PayrollPlan addRule(Department department, PayrollRule rule) {
+		return add(department.getId(), rule);
+	}
+
+	// the matching rules in the order they were added, resolved once per department
+	PayrollRule[] rulesFor(Integer departmentId) {
+		return rulesByDepartment.computeIfAbsent(departmentId, this::resolve);
+	}
+
+	private PayrollPlan add(Integer departmentId, PayrollRule rule) {
+		rules.add(new ScopedRule(departmentId, rule));
+		rulesByDepartment.clear();
+		return this;
+	}
+
+	private PayrollRule[] resolve(Integer departmentId) {
+		List<PayrollRule> matching = new ArrayList<>();
+		for (ScopedRule scoped : rules) {
+			if (scoped.departmentId == null || scoped.departmentId.equals(departmentId)) {
+				matching.add(scoped.rule);
+			}
+		}
+		return matching.toArray(new PayrollRule[matching.size()]);
+	}
+
+	private static class ScopedRule {
+
+		private final Integer departmentId;
+		private final PayrollRule rule;
+
+		ScopedRule(Integer departmentId, PayrollRule rule) {
+			this.departmentId = departmentId;
+			this.rule = rule;
+		}
+	}
+
+}
@@ -0,0 +1,67 @@
+package model.payroll;
+
+public class PayrollResult {
+
+	private final String period;
+	private final long sellers;
+	private final long elapsedMillis;
+	private final long readMillis;
+	private final long computeMillis;
+	private final long writeMillis;
+	private final int parallelism;
+
+	public PayrollResult(String period, long sellers, long elapsedMillis, long readMillis, long computeMillis,
+			long writeMillis, int parallelism) {
+		this.period = period;
+		this.sellers = sellers;
+		this.elapsedMillis = elapsedMillis;
+		this.readMillis = readMillis;
+		this.computeMillis = computeMillis;
+		this.writeMillis = writeMillis;
+		this.parallelism = parallelism;
+	}
+
+	public String getPeriod() {
+		return period;
+	}
+
+	public long getSellers() {
+		return sellers;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	// reading and mapping the seller rows, on the calling thread
+	public long getReadMillis() {
+		return readMillis;
+	}
+
+	// summed over the ForkJoinPool workers, so it can exceed the elapsed time
+	public long getComputeMillis() {
+		return computeMillis;
+	}
+
+	// clearing the period and the batched inserts on the writer thread
+	public long getWriteMillis() {
+		return writeMillis;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public double getSellersPerSecond() {
+		return elapsedMillis == 0 ? sellers : sellers * 1000.0 / elapsedMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "PayrollResult [period=" + period + ", sellers=" + sellers + ", elapsedMillis=" + elapsedMillis
+				+ ", readMillis=" + readMillis + ", computeMillis=" + computeMillis + ", writeMillis=" + writeMillis
+				+ ", parallelism=" + parallelism + ", sellersPerSecond=" + String.format("%.1f", getSellersPerSecond())
+				+ "]";
+	}
+
+}
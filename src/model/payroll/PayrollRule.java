@@ -0,0 +1,12 @@
+package model.payroll;
+
+import model.entities.PayrollProjection;
+import model.entities.Seller;
+
+// rules run on ForkJoinPool workers, so they must not keep per-call state
+@FunctionalInterface
+public interface PayrollRule {
+
+	void apply(Seller seller, PayrollProjection projection);
+
+}
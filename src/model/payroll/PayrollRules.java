@@ -0,0 +1,37 @@
+package model.payroll;
+
+import java.util.Arrays;
+
+public class PayrollRules {
+
+	public static PayrollRule raise(double percent) {
+		double factor = 1 + percent / 100;
+		return (seller, p) -> p.setGross(p.getGross() * factor);
+	}
+
+	public static PayrollRule bonus(double percentOfGross) {
+		double factor = percentOfGross / 100;
+		return (seller, p) -> p.setBonus(p.getBonus() + p.getGross() * factor);
+	}
+
+	// progressive tax on gross + bonus, rates has one more entry than upperLimits for the top bracket
+	public static PayrollRule taxBrackets(double[] upperLimits, double[] rates) {
+		if (rates.length != upperLimits.length + 1) {
+			throw new IllegalArgumentException("Expected " + (upperLimits.length + 1) + " rates");
+		}
+		double[] limits = Arrays.copyOf(upperLimits, upperLimits.length);
+		double[] percents = Arrays.copyOf(rates, rates.length);
+		return (seller, p) -> {
+			double income = p.getGross() + p.getBonus();
+			double tax = 0.0;
+			double lower = 0.0;
+			for (int i = 0; i < percents.length && income > lower; i++) {
+				double upper = i < limits.length ? limits[i] : Double.MAX_VALUE;
+				tax += (Math.min(income, upper) - lower) * percents[i] / 100;
+				lower = upper;
+			}
+			p.setTax(p.getTax() + tax);
+		};
+	}
+
+}
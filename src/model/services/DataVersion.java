@@ -0,0 +1,37 @@
+package model.services;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// moves on every seller or department write, caches compare it to know whether they are stale;
+// a cache that only shows some types compares the versions of those
+public class DataVersion {
+
+	private static final AtomicLong version = new AtomicLong();
+	private static final ConcurrentMap<Class<?>, AtomicLong> versions = new ConcurrentHashMap<>();
+
+	// moves with a write of any type
+	public static long current() {
+		return version.get();
+	}
+
+	// moves with a write of any of the types
+	public static long current(Class<?>... types) {
+		long sum = 0;
+		for (Class<?> type : types) {
+			sum += versionOf(type).get();
+		}
+		return sum;
+	}
+
+	public static void changed(Class<?> type) {
+		versionOf(type).incrementAndGet();
+		version.incrementAndGet();
+	}
+
+	private static AtomicLong versionOf(Class<?> type) {
+		return versions.computeIfAbsent(type, t -> new AtomicLong());
+	}
+
+}
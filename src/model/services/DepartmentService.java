@@ -1,30 +1,139 @@
 package model.services;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import db.UnitOfWork;
+import model.dao.ChangeSet;
 import model.dao.DaoFactory;
+import model.dao.DepartmentCache;
 import model.dao.DepartmentDao;
+import model.dao.SyncToken;
 import model.entities.Department;
 
 public class DepartmentService {
 
 	private DepartmentDao dao = DaoFactory.createDepartmentDao();
+	private DepartmentCache cache = DepartmentCache.getInstance();
+	// null unless writeBehind.enabled=true, the cache holds renames until they are written,
+	// and is reloaded from the database when they are given up
+	private WriteBehindQueue<Department> writeBehind = WriteBehindQueue.forType(Department.class,
+			Department::getId, batch -> UnitOfWork.run(() -> dao.updateAll(batch)),
+			(rows, error) -> DepartmentCache.getInstance().invalidate());
 
 	public List<Department> findAll() {
-		List<Department> departments = dao.findAll();
+		// a loaded cache already has the queued renames, and the form calls this on the FX thread
+		if (!cache.isLoaded()) {
+			flushPending();
+		}
+		List<Department> departments = cache.getAll(dao::findAll);
 		return departments;
 	}
 
+	// true once findAll() answers from memory
+	public boolean isCacheLoaded() {
+		return cache.isLoaded();
+	}
+
+	public List<Department> reload() {
+		flushPending();
+		return cache.load(dao.findAll());
+	}
+
+	public ChangeSet<Department> findModifiedSince(SyncToken token) {
+		ChangeSet<Department> changes = dao.findModifiedSince(token);
+		List<Department> changed = new ArrayList<>();
+		for (Department dep : changes.getChanged()) {
+			changed.add(cache.put(dep));
+		}
+		for (Integer id : changes.getDeletedIds()) {
+			cache.remove(id);
+		}
+		if (!changes.isEmpty()) {
+			DataVersion.changed(Department.class);
+		}
+		return new ChangeSet<>(changed, changes.getDeletedIds(), changes.getToken());
+	}
+
 	public void saveOrUpdate(Department dep) {
+		// inserts stay synchronous, the table and any later edit need the generated Id
 		if (dep.getId() == null) {
 			dao.insert(dep);
+		} else if (writeBehind != null) {
+			writeBehind.enqueue(dep);
 		} else {
 			dao.update(dep);
 		}
+		cache.put(dep);
+		DataVersion.changed(Department.class);
+	}
+
+	public void saveOrUpdateAll(Collection<Department> departments) {
+		flushPending();
+		List<Department> newOnes = new ArrayList<>();
+		List<Department> existing = new ArrayList<>();
+		for (Department dep : departments) {
+			if (dep.getId() == null) {
+				newOnes.add(dep);
+			} else {
+				existing.add(dep);
+			}
+		}
+		// one commit for all of it, and nothing is kept when any row fails
+		try {
+			UnitOfWork.run(() -> {
+				dao.insertAll(newOnes);
+				dao.updateAll(existing);
+			});
+		} catch (RuntimeException e) {
+			for (Department dep : newOnes) {
+				dep.setId(null);
+			}
+			throw e;
+		}
+		for (Department dep : departments) {
+			cache.put(dep);
+		}
+		DataVersion.changed(Department.class);
 	}
 
 	public void remove(Department dep) {
+		if (writeBehind != null) {
+			writeBehind.discard(dep.getId());
+		}
 		dao.deleteById(dep.getId());
+		cache.remove(dep.getId());
+		DataVersion.changed(Department.class);
+	}
+
+	// the listener runs on the write-behind thread, nothing is called when write-behind is off;
+	// the returned action removes it again
+	public Runnable addWriteFailureListener(WriteFailureListener<Department> listener) {
+		if (writeBehind == null) {
+			return () -> {
+			};
+		}
+		return writeBehind.addFailureListener(listener);
+	}
+
+	private void flushPending() {
+		if (writeBehind != null) {
+			writeBehind.flush();
+		}
+	}
+
+	public CompletableFuture<List<Department>> findAllAsync() {
+		return ServiceExecutor.supplyAsync(this::findAll);
+	}
+
+	public CompletableFuture<Void> saveOrUpdateAsync(Department dep) {
+		return ServiceExecutor.runAsync(() -> saveOrUpdate(dep));
+	}
+
+	public CompletableFuture<Void> removeAsync(Department dep) {
+		return ServiceExecutor.runAsync(() -> remove(dep));
 	}
 
 }
@@ -0,0 +1,40 @@
+package model.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+import db.DB;
+import model.dao.DaoFactory;
+import model.dao.PayrollDao;
+import model.dao.SellerDao;
+import model.dao.impl.SellerDaoJDBC;
+import model.payroll.PayrollEngine;
+import model.payroll.PayrollPlan;
+import model.payroll.PayrollResult;
+
+public class PayrollService {
+
+	private SellerDao sellerDao = DaoFactory.createSellerDao();
+	private PayrollDao payrollDao = DaoFactory.createPayrollDao();
+
+	// replaces the projections stored for the period, payroll.parallelism=0 uses the common pool
+	public PayrollResult project(PayrollPlan plan, String period) {
+		int parallelism = DB.getIntProperty("payroll.parallelism", 0);
+		ForkJoinPool pool = parallelism > 0 ? new ForkJoinPool(parallelism) : ForkJoinPool.commonPool();
+		try {
+			PayrollEngine engine = new PayrollEngine(sellerDao, payrollDao, pool);
+			engine.setChunkSize(DB.getIntProperty("payroll.chunkSize", 5000));
+			engine.setFetchSize(DB.getIntProperty("fetch.size", SellerDaoJDBC.STREAMING_FETCH_SIZE));
+			return engine.run(plan, period);
+		} finally {
+			if (pool != ForkJoinPool.commonPool()) {
+				pool.shutdown();
+			}
+		}
+	}
+
+	public CompletableFuture<PayrollResult> projectAsync(PayrollPlan plan, String period) {
+		return ServiceExecutor.supplyAsync(() -> project(plan, period));
+	}
+
+}
@@ -0,0 +1,59 @@
+package model.services;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import model.dao.DaoFactory;
+import model.dao.ReportDao;
+import model.entities.DepartmentReport;
+
+public class ReportService {
+
+	// shared by every instance, stale once the seller and department services write
+	private static volatile CachedReport departmentSalaries;
+
+	private ReportDao dao = DaoFactory.createReportDao();
+
+	public List<DepartmentReport> findDepartmentSalaries() {
+		LocalDate today = LocalDate.now();
+		CachedReport cached = departmentSalaries;
+		// ages move with the date, so yesterday's report is stale too
+		if (cached != null && cached.asOf.equals(today) && cached.version == DataVersion.current()) {
+			return cached.rows;
+		}
+		return reloadDepartmentSalaries();
+	}
+
+	public List<DepartmentReport> reloadDepartmentSalaries() {
+		LocalDate today = LocalDate.now();
+		// a write that happens while loading may not be in the result, its newer version keeps it out of the cache
+		long version = DataVersion.current();
+		List<DepartmentReport> rows = Collections.unmodifiableList(dao.departmentSalaries(today));
+		departmentSalaries = new CachedReport(today, version, rows);
+		return rows;
+	}
+
+	public CompletableFuture<List<DepartmentReport>> findDepartmentSalariesAsync() {
+		return ServiceExecutor.supplyAsync(this::findDepartmentSalaries);
+	}
+
+	public CompletableFuture<List<DepartmentReport>> reloadDepartmentSalariesAsync() {
+		return ServiceExecutor.supplyAsync(this::reloadDepartmentSalaries);
+	}
+
+	private static class CachedReport {
+
+		private final LocalDate asOf;
+		private final long version;
+		private final List<DepartmentReport> rows;
+
+		CachedReport(LocalDate asOf, long version, List<DepartmentReport> rows) {
+			this.asOf = asOf;
+			this.version = version;
+			this.rows = rows;
+		}
+	}
+
+}
@@ -1,29 +1,176 @@
 package model.services;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
+import db.DB;
+import db.UnitOfWork;
+import model.analytics.SellerSnapshot;
+import model.dao.ChangeSet;
 import model.dao.DaoFactory;
 import model.dao.SellerDao;
+import model.dao.SellerQuery;
+import model.dao.SyncToken;
+import model.dao.impl.SellerDaoJDBC;
 import model.entities.Seller;
+import model.imports.ImportProgressListener;
+import model.imports.ImportResult;
+import model.imports.SellerImporter;
 
 public class SellerService {
 
 	private SellerDao dao = DaoFactory.createSellerDao();
+	// null unless writeBehind.enabled=true, then updates are queued and reads flush it first
+	private WriteBehindQueue<Seller> writeBehind = WriteBehindQueue.forType(Seller.class, Seller::getId,
+			batch -> UnitOfWork.run(() -> dao.updateAll(batch)), null);
 
 	public List<Seller> findAll() {
+		flushPending();
 		return dao.findAll();
 	}
 
+	// the stream holds a database connection until it is closed, use it in a try-with-resources block
+	public Stream<Seller> streamAll() {
+		flushPending();
+		return dao.streamAll(DB.getIntProperty("fetch.size", SellerDaoJDBC.STREAMING_FETCH_SIZE));
+	}
+
+	public List<Seller> findPage(Seller after, int limit) {
+		flushPending();
+		if (after == null) {
+			return dao.findPage(null, null, limit);
+		}
+		return dao.findPage(after.getName(), after.getId(), limit);
+	}
+
+	public List<Seller> search(SellerQuery query) {
+		flushPending();
+		return dao.search(query);
+	}
+
+	public int count() {
+		return dao.count();
+	}
+
+	// every seller in columnar form, far smaller than findAll() for dashboards that keep them in memory
+	public SellerSnapshot snapshot() {
+		flushPending();
+		return dao.snapshot(DB.getIntProperty("fetch.size", SellerDaoJDBC.STREAMING_FETCH_SIZE));
+	}
+
+	public ChangeSet<Seller> findModifiedSince(SyncToken token) {
+		ChangeSet<Seller> changes = dao.findModifiedSince(token);
+		if (!changes.isEmpty()) {
+			DataVersion.changed(Seller.class);
+		}
+		return changes;
+	}
+
 	public void saveOrUpdate(Seller seller) {
+		// inserts stay synchronous, the table and any later edit need the generated Id
 		if (seller.getId() == null) {
 			dao.insert(seller);
+		} else if (writeBehind != null) {
+			writeBehind.enqueue(seller);
 		} else {
 			dao.update(seller);
 		}
+		DataVersion.changed(Seller.class);
+	}
+
+	public void saveOrUpdateAll(Collection<Seller> sellers) {
+		flushPending();
+		List<Seller> newOnes = new ArrayList<>();
+		List<Seller> existing = new ArrayList<>();
+		for (Seller seller : sellers) {
+			if (seller.getId() == null) {
+				newOnes.add(seller);
+			} else {
+				existing.add(seller);
+			}
+		}
+		// one commit for all of it, and nothing is kept when any row fails
+		try {
+			UnitOfWork.run(() -> {
+				dao.insertAll(newOnes);
+				dao.updateAll(existing);
+			});
+		} catch (RuntimeException e) {
+			for (Seller seller : newOnes) {
+				seller.setId(null);
+			}
+			throw e;
+		}
+		DataVersion.changed(Seller.class);
+	}
+
+	public ImportResult importCsv(Path csvFile, Path errorReportFile, ImportProgressListener listener)
+			throws IOException {
+		flushPending();
+		SellerImporter importer = new SellerImporter(dao, DaoFactory.createDepartmentDao());
+		importer.setProgressListener(listener);
+		try {
+			return importer.importFile(csvFile, errorReportFile);
+		} finally {
+			DataVersion.changed(Seller.class);
+		}
 	}
 
 	public void remove(Seller seller) {
+		if (writeBehind != null) {
+			writeBehind.discard(seller.getId());
+		}
 		dao.deleteById(seller.getId());
+		DataVersion.changed(Seller.class);
+	}
+
+	// the listener runs on the write-behind thread, nothing is called when write-behind is off;
+	// the returned action removes it again
+	public Runnable addWriteFailureListener(WriteFailureListener<Seller> listener) {
+		if (writeBehind == null) {
+			return () -> {
+			};
+		}
+		return writeBehind.addFailureListener(listener);
+	}
+
+	private void flushPending() {
+		if (writeBehind != null) {
+			writeBehind.flush();
+		}
+	}
+
+	public CompletableFuture<List<Seller>> findAllAsync() {
+		return ServiceExecutor.supplyAsync(this::findAll);
+	}
+
+	public CompletableFuture<List<Seller>> findPageAsync(Seller after, int limit) {
+		return ServiceExecutor.supplyAsync(() -> findPage(after, limit));
+	}
+
+	public CompletableFuture<List<Seller>> searchAsync(SellerQuery query) {
+		return ServiceExecutor.supplyAsync(() -> search(query));
+	}
+
+	public CompletableFuture<SellerSnapshot> snapshotAsync() {
+		return ServiceExecutor.supplyAsync(this::snapshot);
+	}
+
+	public CompletableFuture<Integer> countAsync() {
+		return ServiceExecutor.supplyAsync(this::count);
+	}
+
+	public CompletableFuture<Void> saveOrUpdateAsync(Seller seller) {
+		return ServiceExecutor.runAsync(() -> saveOrUpdate(seller));
+	}
+
+	public CompletableFuture<Void> removeAsync(Seller seller) {
+		return ServiceExecutor.runAsync(() -> remove(seller));
 	}
 
 }
@@ -0,0 +1,75 @@
+package model.services;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import model.entities.Department;
+import model.entities.Seller;
+import model.exceptions.ValidationException;
+
+public class SellerValidator {
+
+	// the lengths the form's text fields accept
+	public static final int NAME_MAX_LENGTH = 30;
+	public static final int EMAIL_MAX_LENGTH = 60;
+
+	public static Seller validate(Integer id, String name, String email, LocalDate birthDate, String baseSalary,
+			Department department) {
+
+		ValidationException exception = new ValidationException("Validation Exception");
+		Seller seller = new Seller();
+		seller.setId(id);
+
+		// name field
+		if (isBlank(name)) {
+			exception.addError("name", "Field is empty");
+		}
+		seller.setName(name);
+
+		// email field
+		if (isBlank(email)) {
+			exception.addError("email", "Field is empty");
+		}
+		seller.setEmail(email);
+
+		// birth date field
+		if (birthDate == null) {
+			exception.addError("birthDate", "Field is empty");
+		} else {
+			Instant instant = Instant.from(birthDate.atStartOfDay(ZoneId.systemDefault()));
+			seller.setBirthDate(Date.from(instant));
+		}
+
+		// base salary field
+		if (isBlank(baseSalary)) {
+			exception.addError("baseSalary", "Field is empty");
+		} else {
+			seller.setBaseSalary(tryParseToDouble(baseSalary));
+		}
+
+		if (department == null) {
+			exception.addError("department", "Field is empty");
+		}
+		seller.setDepartment(department);
+
+		if (exception.getErrors().size() > 0) {
+			throw exception;
+		}
+		return seller;
+	}
+
+	private static Double tryParseToDouble(String str) {
+		try {
+			return Double.parseDouble(str);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static boolean isBlank(String str) {
+		return str == null || str.trim().equals("");
+	}
+
+}
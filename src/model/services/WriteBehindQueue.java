@@ -0,0 +1,177 @@
+package model.services;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import db.DB;
+
+// updates of existing rows return at once and are written in batches later, the latest version of an Id wins;
+// off unless writeBehind.enabled=true
+public class WriteBehindQueue<T> {
+
+	private static final Logger LOG = Logger.getLogger(WriteBehindQueue.class.getName());
+
+	// one queue per entity type, shared by every service instance, DISABLED when write-behind is off
+	private static final ConcurrentMap<Class<?>, Object> QUEUES = new ConcurrentHashMap<>();
+	private static final Object DISABLED = new Object();
+	private static volatile boolean shutdownHookAdded;
+
+	private final Class<T> entityType;
+	private final Function<T, Integer> idOf;
+	private final Consumer<List<T>> writer;
+	private final int maxAttempts;
+	private final List<WriteFailureListener<T>> listeners = new CopyOnWriteArrayList<>();
+	private final ScheduledExecutorService flusher;
+
+	// guarded by this, in the order the Ids were first queued
+	private final Map<Integer, T> pending = new LinkedHashMap<>();
+	// guarded by flushLock, so one batch at a time goes out
+	private final Object flushLock = new Object();
+	private int failedAttempts;
+
+	WriteBehindQueue(Class<T> entityType, Function<T, Integer> idOf, Consumer<List<T>> writer,
+			long delayMillis, int maxAttempts) {
+		this.entityType = entityType;
+		this.idOf = idOf;
+		this.writer = writer;
+		this.maxAttempts = maxAttempts;
+		flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "write-behind-" + entityType.getSimpleName());
+			t.setDaemon(true);
+			return t;
+		});
+		flusher.scheduleWithFixedDelay(this::flush, delayMillis, delayMillis, TimeUnit.MILLISECONDS);
+	}
+
+	// null when write-behind is off, writer gets the coalesced updates in queue order and
+	// onGiveUp, if not null, is the first failure listener of the queue
+	@SuppressWarnings("unchecked")
+	static <T> WriteBehindQueue<T> forType(Class<T> entityType, Function<T, Integer> idOf,
+			Consumer<List<T>> writer, WriteFailureListener<T> onGiveUp) {
+		Object queue = QUEUES.computeIfAbsent(entityType, type -> {
+			if (!"true".equalsIgnoreCase(DB.getProperties().getProperty("writeBehind.enabled"))) {
+				return DISABLED;
+			}
+			addShutdownHook();
+			WriteBehindQueue<T> created = new WriteBehindQueue<>(entityType, idOf, writer,
+					DB.getLongProperty("writeBehind.delayMillis", 500), DB.getIntProperty("writeBehind.maxAttempts", 3));
+			if (onGiveUp != null) {
+				created.addFailureListener(onGiveUp);
+			}
+			return created;
+		});
+		return queue == DISABLED ? null : (WriteBehindQueue<T>) queue;
+	}
+
+	// for exits that skip Main.stop(), closeAll() only writes what is still pending
+	private static synchronized void addShutdownHook() {
+		if (!shutdownHookAdded) {
+			Runtime.getRuntime().addShutdownHook(new Thread(WriteBehindQueue::closeAll, "write-behind-shutdown"));
+			shutdownHookAdded = true;
+		}
+	}
+
+	// writes everything still queued before the application exits, rows that still fail are logged in full
+	public static void closeAll() {
+		for (Object queue : QUEUES.values()) {
+			if (queue != DISABLED) {
+				((WriteBehindQueue<?>) queue).close();
+			}
+		}
+	}
+
+	public synchronized void enqueue(T entity) {
+		pending.put(idOf.apply(entity), entity);
+	}
+
+	// a delete must not be followed by the update of a row that is gone
+	public synchronized void discard(Integer id) {
+		pending.remove(id);
+	}
+
+	public synchronized int size() {
+		return pending.size();
+	}
+
+	// the queues live as long as the application, call the returned action once the listener is done with
+	public Runnable addFailureListener(WriteFailureListener<T> listener) {
+		listeners.add(listener);
+		return () -> listeners.remove(listener);
+	}
+
+	// runs on the write-behind thread and before reads and bulk writes, so they see the queued updates
+	public void flush() {
+		synchronized (flushLock) {
+			List<T> batch = drain();
+			if (batch.isEmpty()) {
+				return;
+			}
+			try {
+				writer.accept(batch);
+				failedAttempts = 0;
+				// only this type's views and the reports built from it are stale now
+				DataVersion.changed(entityType);
+			} catch (RuntimeException e) {
+				failed(batch, e);
+			}
+		}
+	}
+
+	private synchronized List<T> drain() {
+		List<T> batch = new ArrayList<>(pending.values());
+		pending.clear();
+		return batch;
+	}
+
+	// a failed batch is retried with the next flush, unless a newer update of the same Id came in meanwhile
+	private void failed(List<T> batch, RuntimeException e) {
+		failedAttempts++;
+		if (failedAttempts < maxAttempts) {
+			LOG.log(Level.WARNING, "Could not write " + batch.size() + " " + entityType.getSimpleName()
+					+ " updates, attempt " + failedAttempts + " of " + maxAttempts, e);
+			synchronized (this) {
+				for (T entity : batch) {
+					pending.putIfAbsent(idOf.apply(entity), entity);
+				}
+			}
+			return;
+		}
+		failedAttempts = 0;
+		LOG.log(Level.SEVERE, "Gave up writing " + entityType.getSimpleName() + " updates " + batch, e);
+		// what the views show is ahead of the database now
+		DataVersion.changed(entityType);
+		for (WriteFailureListener<T> listener : listeners) {
+			try {
+				listener.onWriteFailed(batch, e);
+			} catch (RuntimeException listenerError) {
+				LOG.log(Level.WARNING, "Write failure listener failed", listenerError);
+			}
+		}
+	}
+
+	// a flush already running is left to finish, the scheduled ones are cancelled
+	void close() {
+		flusher.shutdown();
+		try {
+			flusher.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for (int attempt = 0; attempt < maxAttempts && size() > 0; attempt++) {
+			flush();
+		}
+	}
+
+}
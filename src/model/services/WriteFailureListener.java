@@ -0,0 +1,10 @@
+package model.services;
+
+import java.util.List;
+
+// called on the write-behind thread with the rows whose queued update was given up
+public interface WriteFailureListener<T> {
+
+	void onWriteFailed(List<T> rows, RuntimeException error);
+
+}
@@ -0,0 +1,133 @@
+package db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ConnectionPoolTest {
+
+	private ConnectionPool pool;
+
+	@AfterEach
+	void closePool() {
+		if (pool != null) {
+			pool.close();
+		}
+	}
+
+	private ConnectionPool createPool(String... settings) {
+		Properties props = TestDatabase.properties();
+		for (int i = 0; i < settings.length; i += 2) {
+			props.setProperty(settings[i], settings[i + 1]);
+		}
+		pool = new ConnectionPool(props.getProperty("dburl"), props);
+		return pool;
+	}
+
+	@Test
+	void fillsToMinSizeOnStart() {
+		createPool("pool.minSize", "2");
+
+		assertEquals(2, pool.getIdleCount());
+		assertEquals(0, pool.getActiveCount());
+	}
+
+	@Test
+	void closedConnectionGoesBackToIdle() throws SQLException {
+		createPool();
+
+		Connection conn = pool.borrow();
+		assertEquals(1, pool.getActiveCount());
+		assertEquals(0, pool.getIdleCount());
+
+		conn.close();
+		assertEquals(0, pool.getActiveCount());
+		assertEquals(1, pool.getIdleCount());
+		assertEquals(1, pool.getTotalCount());
+	}
+
+	@Test
+	void reusesTheIdleConnection() throws SQLException {
+		createPool();
+
+		Connection first = pool.borrow();
+		first.close();
+		Connection second = pool.borrow();
+
+		// a new handle over the same physical connection
+		assertNotSame(first, second);
+		assertEquals(1, pool.getTotalCount());
+		second.close();
+	}
+
+	@Test
+	void closedHandleCannotBeUsed() throws SQLException {
+		createPool();
+
+		Connection conn = pool.borrow();
+		conn.close();
+		conn.close();
+
+		assertTrue(conn.isClosed());
+		assertThrows(SQLException.class, () -> conn.prepareStatement("SELECT 1"));
+		assertEquals(1, pool.getIdleCount());
+	}
+
+	@Test
+	void borrowTimesOutWhenAllConnectionsAreInUse() throws SQLException {
+		createPool("pool.maxSize", "2", "pool.borrowTimeoutMillis", "50");
+
+		Connection first = pool.borrow();
+		Connection second = pool.borrow();
+
+		assertThrows(DbException.class, () -> pool.borrow());
+
+		second.close();
+		Connection third = pool.borrow();
+		assertEquals(2, pool.getActiveCount());
+		first.close();
+		third.close();
+	}
+
+	@Test
+	void borrowFailsOnceClosed() {
+		createPool();
+		pool.close();
+
+		assertThrows(DbException.class, () -> pool.borrow());
+	}
+
+	@Test
+	void rollsBackAndRestoresAutoCommitOnReturn() throws SQLException {
+		createPool("pool.maxSize", "1");
+		Connection conn = pool.borrow();
+		TestDatabase.execute(conn, "CREATE TABLE item (Id INT PRIMARY KEY)");
+		conn.setAutoCommit(false);
+		TestDatabase.execute(conn, "INSERT INTO item VALUES (1)");
+		conn.close();
+
+		conn = pool.borrow();
+		assertTrue(conn.getAutoCommit());
+		assertEquals(0, count(conn, "item"));
+		conn.close();
+	}
+
+	static int count(Connection conn, String table) throws SQLException {
+		try (Statement st = conn.createStatement();
+				ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + table)) {
+			rs.next();
+			return rs.getInt(1);
+		}
+	}
+
+}
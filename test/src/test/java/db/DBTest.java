@@ -0,0 +1,61 @@
+package db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class DBTest {
+
+	@AfterEach
+	void closeDatabase() {
+		DB.closeConnection();
+	}
+
+	@Test
+	void concurrentFirstCallsShareOnePool() throws Exception {
+		DB.setProperties(TestDatabase.properties());
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<ConnectionPool>> pools = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				pools.add(executor.submit(() -> {
+					start.await();
+					return DB.getPool();
+				}));
+			}
+			start.countDown();
+
+			ConnectionPool first = pools.get(0).get();
+			for (Future<ConnectionPool> pool : pools) {
+				assertSame(first, pool.get());
+			}
+			assertSame(first, DB.getPool());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void closeConnectionLetsTheNextCallOpenANewPool() {
+		DB.setProperties(TestDatabase.properties());
+		ConnectionPool first = DB.getPool();
+
+		DB.closeConnection();
+		ConnectionPool second = DB.getPool();
+
+		assertNotSame(first, second);
+		assertEquals(0, second.getActiveCount());
+	}
+
+}
@@ -0,0 +1,58 @@
+package db;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class QueryCancellationTest {
+
+	private ConnectionPool pool;
+
+	@BeforeEach
+	void createPool() {
+		pool = new ConnectionPool(TestDatabase.properties().getProperty("dburl"), TestDatabase.properties());
+	}
+
+	@AfterEach
+	void closePool() {
+		pool.close();
+	}
+
+	@Test
+	void cancelStopsTheRunningStatement() throws SQLException {
+		QueryCancellation cancellation = new QueryCancellation();
+		// runs for minutes unless cancelled
+		try (Connection conn = pool.borrow(); PreparedStatement ps = conn.prepareStatement(
+				"SELECT SUM(A.X * B.X) FROM SYSTEM_RANGE(1, 100000) A, SYSTEM_RANGE(1, 100000) B")) {
+			cancellation.attach(ps);
+			CompletableFuture.runAsync(cancellation::cancel, CompletableFuture.delayedExecutor(200,
+					TimeUnit.MILLISECONDS));
+			long start = System.nanoTime();
+			try {
+				assertThrows(SQLException.class, ps::executeQuery);
+			} finally {
+				cancellation.detach();
+			}
+			assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+		}
+	}
+
+	@Test
+	void attachAfterCancelFails() throws SQLException {
+		QueryCancellation cancellation = new QueryCancellation();
+		cancellation.cancel();
+		try (Connection conn = pool.borrow(); PreparedStatement ps = conn.prepareStatement("SELECT 1")) {
+			assertThrows(DbException.class, () -> cancellation.attach(ps));
+		}
+	}
+
+}
@@ -0,0 +1,133 @@
+package db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SchemaMigratorTest {
+
+	private ConnectionPool pool;
+	private Connection conn;
+
+	@BeforeEach
+	void openConnection() {
+		Properties props = TestDatabase.properties();
+		pool = new ConnectionPool(props.getProperty("dburl"), props);
+		conn = pool.borrow();
+	}
+
+	@AfterEach
+	void closePool() throws SQLException {
+		conn.close();
+		pool.close();
+	}
+
+	@Test
+	void appliesPendingMigrationsInOrder() throws SQLException {
+		int version = new SchemaMigrator(conn, "V1__base_tables.sql", "V3__seller_indexes.sql",
+				"V90__test_items.sql").migrate(1);
+
+		assertEquals(90, version);
+		assertEquals(3, queryInt("SELECT COUNT(*) FROM schema_version"));
+		assertEquals("test items", queryString("SELECT Description FROM schema_version WHERE Version = 90"));
+		assertEquals(1, queryInt("SELECT COUNT(*) FROM item"));
+		assertEquals(1, queryInt("SELECT COUNT(*) FROM information_schema.indexes "
+				+ "WHERE index_name = 'idx_seller_name_id'"));
+	}
+
+	@Test
+	void secondRunAppliesNothing() throws SQLException {
+		new SchemaMigrator(conn, "V1__base_tables.sql", "V90__test_items.sql").migrate(1);
+		int version = new SchemaMigrator(conn, "V1__base_tables.sql", "V90__test_items.sql").migrate(1);
+
+		assertEquals(90, version);
+		assertEquals(1, queryInt("SELECT COUNT(*) FROM item"));
+	}
+
+	@Test
+	void baselinesTablesThatPredateSchemaVersion() throws SQLException {
+		TestDatabase.execute(conn, "CREATE TABLE department (Id INT PRIMARY KEY, Name VARCHAR(60))",
+				"CREATE TABLE seller (Id INT PRIMARY KEY, Name VARCHAR(60))");
+
+		int version = new SchemaMigrator(conn, "V1__base_tables.sql", "V3__seller_indexes.sql").migrate(3);
+
+		assertEquals(3, version);
+		assertEquals(0, queryInt("SELECT ExecutionMillis FROM schema_version WHERE Version = 3"));
+		// V3 was recorded, not run, so its indexes were not added
+		assertEquals(0, queryInt("SELECT COUNT(*) FROM information_schema.indexes "
+				+ "WHERE index_name = 'idx_seller_name_id'"));
+	}
+
+	@Test
+	void baselineIsAtLeastTwoWhenChangeTrackingExists() throws SQLException {
+		TestDatabase.execute(conn, "CREATE TABLE department (Id INT PRIMARY KEY, Name VARCHAR(60))",
+				"CREATE TABLE seller (Id INT PRIMARY KEY, Name VARCHAR(60))",
+				"CREATE TABLE deleted_row (TableName VARCHAR(30), RowId INT)");
+
+		int version = new SchemaMigrator(conn, "V1__base_tables.sql", "V2__sync_tracking.sql").migrate(1);
+
+		assertEquals(2, version);
+		assertEquals(2, queryInt("SELECT COUNT(*) FROM schema_version"));
+	}
+
+	@Test
+	void failedMigrationResumesAfterItsLastCompletedStep() throws SQLException {
+		SchemaMigrator migrator = new SchemaMigrator(conn, "V90__test_items.sql", "V91__test_needs_tag.sql");
+
+		DbException failure = assertThrows(DbException.class, () -> migrator.migrate(1));
+		assertTrue(failure.getMessage().contains("V91__test_needs_tag.sql failed at step 3"), failure.getMessage());
+		assertEquals(90, queryInt("SELECT MAX(Version) FROM schema_version"));
+		assertEquals(2, queryInt("SELECT COUNT(*) FROM schema_version_step WHERE Version = 91"));
+
+		TestDatabase.execute(conn, "CREATE TABLE tag (Name VARCHAR(20))");
+		int version = migrator.migrate(1);
+
+		// steps 1 and 2 did not run again, or the ALTER and the insert would have failed
+		assertEquals(91, version);
+		assertEquals(2, queryInt("SELECT COUNT(*) FROM item"));
+		assertEquals(1, queryInt("SELECT COUNT(*) FROM tag"));
+		assertEquals(0, queryInt("SELECT COUNT(*) FROM schema_version_step"));
+	}
+
+	@Test
+	void missingScriptFails() {
+		SchemaMigrator migrator = new SchemaMigrator(conn, "V92__missing.sql");
+
+		assertThrows(DbException.class, () -> migrator.migrate(1));
+	}
+
+	@Test
+	void allStatementsFollowTheMigrationOrder() {
+		List<String> statements = SchemaMigrator.allStatements();
+		List<String> last = SchemaMigrator.readStatements("V4__payroll_projection.sql");
+
+		assertTrue(statements.get(0).startsWith("CREATE TABLE IF NOT EXISTS department"), statements.get(0));
+		assertEquals(last, statements.subList(statements.size() - last.size(), statements.size()));
+	}
+
+	private int queryInt(String sql) throws SQLException {
+		try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+			rs.next();
+			return rs.getInt(1);
+		}
+	}
+
+	private String queryString(String sql) throws SQLException {
+		try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+			rs.next();
+			return rs.getString(1);
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+package db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SlowQueryLogTest {
+
+	private static final Logger LOG = Logger.getLogger(SlowQueryLog.class.getName());
+
+	private final List<String> messages = new ArrayList<>();
+	private final Handler capture = new Handler() {
+		@Override
+		public void publish(LogRecord record) {
+			messages.add(record.getMessage());
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	};
+
+	private ConnectionPool pool;
+
+	@BeforeEach
+	void createPool() throws SQLException {
+		LOG.addHandler(capture);
+		Properties props = TestDatabase.properties();
+		// every statement counts as slow
+		props.setProperty("slowQuery.thresholdMillis", "0");
+		pool = new ConnectionPool(props.getProperty("dburl"), props);
+		try (Connection conn = pool.borrow()) {
+			TestDatabase.execute(conn, "CREATE TABLE item (Id INT PRIMARY KEY)",
+					"INSERT INTO item (Id) VALUES (1), (2), (3)");
+		}
+		messages.clear();
+	}
+
+	@AfterEach
+	void closePool() {
+		LOG.removeHandler(capture);
+		pool.close();
+	}
+
+	@Test
+	void queryIsLoggedWithTheRowsReadWhenItsResultCloses() throws SQLException {
+		try (Connection conn = pool.borrow(); PreparedStatement ps = conn.prepareStatement(
+				"SELECT Id FROM item WHERE Id > ? ORDER BY Id")) {
+			ps.setInt(1, 0);
+			ResultSet rs = ps.executeQuery();
+			assertSame(ps, rs.getStatement());
+			while (rs.next()) {
+			}
+			assertTrue(messages.isEmpty());
+
+			rs.close();
+		}
+
+		assertEquals(1, messages.size());
+		assertTrue(messages.get(0).contains(", 3 rows"), messages.get(0));
+		assertTrue(messages.get(0).contains("Parameters: [1=0]"), messages.get(0));
+	}
+
+	@Test
+	void queryLeftOpenIsLoggedWhenTheStatementCloses() throws SQLException {
+		try (Connection conn = pool.borrow(); PreparedStatement ps = conn.prepareStatement("SELECT Id FROM item")) {
+			ResultSet rs = ps.executeQuery();
+			rs.next();
+		}
+
+		assertEquals(1, messages.size());
+		assertTrue(messages.get(0).contains(", 1 rows"), messages.get(0));
+	}
+
+	@Test
+	void updateIsLoggedWithItsUpdateCount() throws SQLException {
+		try (Connection conn = pool.borrow();
+				PreparedStatement ps = conn.prepareStatement("UPDATE item SET Id = Id + 10 WHERE Id < ?")) {
+			ps.setInt(1, 3);
+			ps.executeUpdate();
+		}
+
+		assertEquals(1, messages.size());
+		assertTrue(messages.get(0).contains(", 2 rows"), messages.get(0));
+	}
+
+	@Test
+	void callableStatementIsNotWrapped() throws SQLException {
+		try (Connection conn = pool.borrow(); CallableStatement cs = conn.prepareCall("CALL 1")) {
+			assertTrue(cs.execute());
+		}
+
+		assertTrue(messages.isEmpty());
+	}
+
+}
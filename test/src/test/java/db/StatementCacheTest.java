@@ -0,0 +1,174 @@
+package db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StatementCacheTest {
+
+	private ConnectionPool pool;
+	private Connection conn;
+
+	@BeforeEach
+	void openConnection() {
+		Properties props = TestDatabase.properties();
+		props.setProperty("pool.maxSize", "1");
+		props.setProperty("pool.statementCacheSize", "2");
+		pool = new ConnectionPool(props.getProperty("dburl"), props);
+		conn = pool.borrow();
+		TestDatabase.execute(conn, "CREATE TABLE item (Id INT PRIMARY KEY AUTO_INCREMENT, Name VARCHAR(20))",
+				"INSERT INTO item (Name) VALUES ('a'), ('b')");
+	}
+
+	@AfterEach
+	void closePool() throws SQLException {
+		conn.close();
+		pool.close();
+	}
+
+	@Test
+	void reusesThePhysicalStatementBehindANewHandle() throws SQLException {
+		PreparedStatement first = conn.prepareStatement("SELECT Name FROM item WHERE Id = ?");
+		first.close();
+		PreparedStatement second = conn.prepareStatement("SELECT Name FROM item WHERE Id = ?");
+
+		assertNotSame(first, second);
+		assertEquals(1, pool.getStatementCacheHits());
+		assertEquals(1, pool.getStatementCacheMisses());
+		// the stale handle stays closed while the next borrower uses the statement
+		assertTrue(first.isClosed());
+		assertThrows(SQLException.class, () -> first.setInt(1, 2));
+		first.close();
+		second.setInt(1, 1);
+		try (ResultSet rs = second.executeQuery()) {
+			assertTrue(rs.next());
+			assertEquals("a", rs.getString(1));
+		}
+		second.close();
+	}
+
+	@Test
+	void getConnectionReturnsThePooledHandle() throws SQLException {
+		PreparedStatement ps = conn.prepareStatement("SELECT Name FROM item WHERE Id = ?");
+		PreparedStatement uncached = conn.prepareStatement("SELECT Name FROM item WHERE Id = ?");
+
+		assertSame(conn, ps.getConnection());
+		assertSame(conn, uncached.getConnection());
+		uncached.close();
+		ps.close();
+	}
+
+	@Test
+	void closeResetsFetchSizeMaxRowsAndQueryTimeout() throws SQLException {
+		PreparedStatement ps = conn.prepareStatement("SELECT Name FROM item");
+		int fetchSize = ps.getFetchSize();
+		ps.setMaxRows(1);
+		ps.setFetchSize(1);
+		ps.setQueryTimeout(7);
+		ps.close();
+
+		ps = conn.prepareStatement("SELECT Name FROM item");
+		assertEquals(fetchSize, ps.getFetchSize());
+		assertEquals(0, ps.getMaxRows());
+		assertEquals(0, ps.getQueryTimeout());
+		int rows = 0;
+		try (ResultSet rs = ps.executeQuery()) {
+			while (rs.next()) {
+				rows++;
+			}
+		}
+		assertEquals(2, rows);
+		ps.close();
+	}
+
+	@Test
+	void survivesReturningTheConnection() throws SQLException {
+		conn.prepareStatement("SELECT Name FROM item WHERE Id = ?").close();
+		conn.close();
+		conn = pool.borrow();
+		conn.prepareStatement("SELECT Name FROM item WHERE Id = ?").close();
+
+		assertEquals(1, pool.getStatementCacheHits());
+	}
+
+	@Test
+	void closeResetsParametersAndOpenResult() throws SQLException {
+		PreparedStatement ps = conn.prepareStatement("SELECT Name FROM item WHERE Id = ?");
+		ps.setInt(1, 1);
+		ResultSet rs = ps.executeQuery();
+		ps.close();
+
+		assertTrue(rs.isClosed());
+		ps = conn.prepareStatement("SELECT Name FROM item WHERE Id = ?");
+		assertThrows(SQLException.class, ps::executeQuery);
+		ps.close();
+	}
+
+	@Test
+	void closedStatementCannotBeUsed() throws SQLException {
+		PreparedStatement ps = conn.prepareStatement("SELECT Name FROM item WHERE Id = ?");
+		ps.close();
+
+		assertTrue(ps.isClosed());
+		assertThrows(SQLException.class, () -> ps.setInt(1, 1));
+	}
+
+	@Test
+	void sqlInUseGetsAnUncachedStatement() throws SQLException {
+		PreparedStatement cached = conn.prepareStatement("SELECT Name FROM item WHERE Id = ?");
+		PreparedStatement uncached = conn.prepareStatement("SELECT Name FROM item WHERE Id = ?");
+
+		assertNotSame(cached, uncached);
+		uncached.close();
+		assertTrue(uncached.isClosed());
+		assertFalse(cached.isClosed());
+		cached.close();
+	}
+
+	@Test
+	void generatedKeysAreCachedSeparately() throws SQLException {
+		String sql = "INSERT INTO item (Name) VALUES (?)";
+		PreparedStatement plain = conn.prepareStatement(sql);
+		plain.close();
+		PreparedStatement withKeys = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+
+		assertNotSame(plain, withKeys);
+		withKeys.setString(1, "c");
+		withKeys.executeUpdate();
+		try (ResultSet keys = withKeys.getGeneratedKeys()) {
+			assertTrue(keys.next());
+			assertEquals(3, keys.getInt(1));
+		}
+		withKeys.close();
+	}
+
+	@Test
+	void evictsTheLeastRecentlyUsed() throws SQLException {
+		conn.prepareStatement("SELECT 1").close();
+		conn.prepareStatement("SELECT 2").close();
+		// touch the first one, so the second is the eldest
+		conn.prepareStatement("SELECT 1").close();
+		conn.prepareStatement("SELECT 3").close();
+
+		assertEquals(1, pool.getStatementCacheEvictions());
+		conn.prepareStatement("SELECT 1").close();
+		assertEquals(2, pool.getStatementCacheHits());
+		conn.prepareStatement("SELECT 2").close();
+		assertEquals(2, pool.getStatementCacheHits());
+	}
+
+}
@@ -0,0 +1,54 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// a fresh in-memory H2 database in MySQL mode per call, the same settings the benchmarks use
+public class TestDatabase {
+
+	private static final AtomicInteger DATABASES = new AtomicInteger();
+
+	public static Properties properties() {
+		Properties props = new Properties();
+		props.setProperty("dburl", "jdbc:h2:mem:test" + DATABASES.incrementAndGet()
+				+ ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1");
+		props.setProperty("user", "sa");
+		props.setProperty("password", "");
+		props.setProperty("pool.minSize", "0");
+		props.setProperty("pool.maxSize", "4");
+		props.setProperty("migration.enabled", "false");
+		props.setProperty("migration.checkIndexes", "false");
+		return props;
+	}
+
+	// points DB at a new database with the department, seller and payroll tables and the seller indexes
+	public static void useWithSchema() {
+		DB.setProperties(properties());
+		Connection conn = DB.getConnection();
+		try {
+			// V2 adds MySQL triggers that H2 cannot run, nothing tested here needs change tracking
+			new SchemaMigrator(conn, "V1__base_tables.sql", "V3__seller_indexes.sql", "V4__payroll_projection.sql")
+					.migrate(1);
+		} finally {
+			DB.closeConnection(conn);
+		}
+	}
+
+	public static void execute(Connection conn, String... statements) {
+		Statement st = null;
+		try {
+			st = conn.createStatement();
+			for (String sql : statements) {
+				st.execute(sql);
+			}
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeStatement(st);
+		}
+	}
+
+}
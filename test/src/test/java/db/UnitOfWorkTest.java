@@ -0,0 +1,155 @@
+package db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UnitOfWorkTest {
+
+	@BeforeEach
+	void createTable() {
+		DB.setProperties(TestDatabase.properties());
+		Connection conn = DB.getConnection();
+		try {
+			TestDatabase.execute(conn, "CREATE TABLE item (Id INT PRIMARY KEY)");
+		} finally {
+			DB.closeConnection(conn);
+		}
+	}
+
+	@AfterEach
+	void closeDatabase() {
+		DB.closeConnection();
+	}
+
+	@Test
+	void commitsTheWork() {
+		UnitOfWork.run(() -> {
+			insert(1);
+			insert(2);
+		});
+
+		assertEquals(2, countItems());
+	}
+
+	@Test
+	void rollsBackAndRethrowsWhenTheWorkFails() {
+		IllegalStateException failure = new IllegalStateException("stop");
+
+		IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> UnitOfWork.run(() -> {
+			insert(1);
+			throw failure;
+		}));
+
+		assertSame(failure, thrown);
+		assertEquals(0, countItems());
+	}
+
+	@Test
+	void sqlFailureRollsBackEarlierStatements() {
+		assertThrows(DbException.class, () -> UnitOfWork.run(() -> {
+			insert(1);
+			insert(1);
+		}));
+
+		assertEquals(0, countItems());
+	}
+
+	@Test
+	void nestedUnitJoinsTheOuterOne() {
+		assertThrows(IllegalStateException.class, () -> UnitOfWork.run(() -> {
+			Connection outer = DB.getConnection();
+			UnitOfWork.run(() -> {
+				assertSame(outer, DB.getConnection());
+				insert(1);
+			});
+			throw new IllegalStateException("stop");
+		}));
+
+		// the inner unit did not commit on its own
+		assertEquals(0, countItems());
+	}
+
+	@Test
+	void connectionIsBoundOnlyWhileTheWorkRuns() {
+		assertFalse(DB.isInTransaction());
+
+		UnitOfWork.run(() -> {
+			assertTrue(DB.isInTransaction());
+			Connection conn = DB.getConnection();
+			assertSame(conn, DB.getConnection());
+			// DAO code closes what it gets, that must not end the unit's connection
+			DB.closeConnection(conn);
+			assertEquals(1, DB.getPool().getActiveCount());
+		});
+
+		assertFalse(DB.isInTransaction());
+		assertEquals(0, DB.getPool().getActiveCount());
+		assertEquals(1, DB.getPool().getIdleCount());
+		assertAutoCommitRestored();
+	}
+
+	@Test
+	void connectionIsReturnedAfterAFailure() {
+		assertThrows(IllegalStateException.class, () -> UnitOfWork.run(() -> {
+			insert(1);
+			throw new IllegalStateException("stop");
+		}));
+
+		assertFalse(DB.isInTransaction());
+		assertEquals(0, DB.getPool().getActiveCount());
+		assertEquals(1, DB.getPool().getIdleCount());
+		assertAutoCommitRestored();
+	}
+
+	// the pooled connection the unit used is handed out again in auto-commit mode
+	private static void assertAutoCommitRestored() {
+		Connection conn = DB.getConnection();
+		try {
+			assertTrue(conn.getAutoCommit());
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeConnection(conn);
+		}
+	}
+
+	private static void insert(int id) {
+		Connection conn = DB.getConnection();
+		try {
+			TestDatabase.execute(conn, "INSERT INTO item (Id) VALUES (" + id + ")");
+		} finally {
+			DB.closeConnection(conn);
+		}
+	}
+
+	private static int countItems() {
+		Connection conn = DB.getConnection();
+		Statement st = null;
+		ResultSet rs = null;
+		try {
+			st = conn.createStatement();
+			rs = st.executeQuery("SELECT COUNT(*) FROM item");
+			rs.next();
+			return rs.getInt(1);
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
+		}
+	}
+
+}
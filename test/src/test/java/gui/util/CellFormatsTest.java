@@ -0,0 +1,80 @@
+package gui.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class CellFormatsTest {
+
+	private static Locale defaultLocale;
+
+	// a comma separator, as on the machines the application was written for
+	@BeforeAll
+	static void useCommaLocale() {
+		defaultLocale = Locale.getDefault();
+		Locale.setDefault(new Locale("pt", "BR"));
+	}
+
+	@AfterAll
+	static void restoreLocale() {
+		Locale.setDefault(defaultLocale);
+	}
+
+	@Test
+	void decimalMatchesStringFormat() {
+		double[] values = { 0.0, -0.0, 0.005, -0.005, 0.015, 0.125, 1.005, 2.675, -2.675, 1234.5, -0.001, 1e-10,
+				-1e-10, 999.995, 1e15, 123456789.125, Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE,
+				Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY };
+		for (int places = 0; places <= 4; places++) {
+			for (double value : values) {
+				assertFormatted(places, value);
+			}
+		}
+	}
+
+	@Test
+	void decimalMatchesStringFormatForRandomValues() {
+		Random random = new Random(42);
+		for (int i = 0; i < 100_000; i++) {
+			double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12));
+			assertFormatted(2, value);
+			// halves of the last place are where rounding modes differ
+			assertFormatted(2, Math.round(value * 1000) / 1000.0);
+		}
+	}
+
+	@Test
+	void cachedTextIsReused() {
+		Function<Double, String> format = CellFormats.decimal(2);
+
+		assertSame(format, CellFormats.decimal(2));
+		assertSame(format.apply(1234.5), format.apply(1234.5));
+	}
+
+	@Test
+	void dateMatchesSimpleDateFormat() {
+		SimpleDateFormat expected = new SimpleDateFormat("dd/MM/yyyy");
+		Function<Date, String> format = CellFormats.date("dd/MM/yyyy");
+		long[] times = { 0L, 1_000_000_000_000L, -1_000_000_000_000L, 1_700_000_000_123L };
+		for (long time : times) {
+			Date date = new Date(time);
+			assertEquals(expected.format(date), format.apply(date));
+			assertEquals(expected.format(date), format.apply(new java.sql.Date(time)));
+		}
+	}
+
+	private static void assertFormatted(int places, double value) {
+		assertEquals(String.format("%." + places + "f", value), CellFormats.decimal(places).apply(value),
+				"value " + value + " with " + places + " places");
+	}
+
+}
@@ -0,0 +1,117 @@
+package model.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import model.entities.Department;
+
+class DepartmentCacheTest {
+
+	private final DepartmentCache cache = new DepartmentCache();
+
+	@Test
+	void getAllLoadsOnce() {
+		AtomicInteger loads = new AtomicInteger();
+		List<Department> first = cache.getAll(() -> {
+			loads.incrementAndGet();
+			return Arrays.asList(new Department(1, "Books"), new Department(2, "Music"));
+		});
+		List<Department> second = cache.getAll(() -> {
+			loads.incrementAndGet();
+			return Arrays.asList(new Department(1, "Books"));
+		});
+
+		assertEquals(1, loads.get());
+		assertSame(first, second);
+		assertTrue(cache.isLoaded());
+	}
+
+	@Test
+	void canonicalSharesOneInstancePerDepartment() {
+		Department books = cache.canonical(1, "Books");
+
+		assertSame(books, cache.canonical(1, "Books"));
+		assertSame(books, cache.get(1));
+	}
+
+	@Test
+	void staleRowNeverRenamesTheSharedInstance() {
+		Department books = cache.put(new Department(1, "Books"));
+
+		Department stale = cache.canonical(1, "Old books");
+
+		assertNotSame(books, stale);
+		assertEquals("Old books", stale.getName());
+		assertEquals("Books", books.getName());
+		assertSame(books, cache.get(1));
+	}
+
+	@Test
+	void renamePublishesANewInstance() {
+		Department books = cache.put(new Department(1, "Books"));
+
+		Department renamed = cache.put(new Department(1, "E-books"));
+
+		assertNotSame(books, renamed);
+		assertEquals("Books", books.getName());
+		assertSame(renamed, cache.get(1));
+		assertEquals("E-books", cache.get(1).getName());
+	}
+
+	@Test
+	void putKeepsACopyOfTheCallersInstance() {
+		Department edited = new Department(1, "Books");
+		Department shared = cache.put(edited);
+
+		edited.setName("Changed after saving");
+
+		assertNotSame(edited, shared);
+		assertEquals("Books", cache.get(1).getName());
+	}
+
+	@Test
+	void loadKeepsUnchangedInstancesAndReplacesRenamedOnes() {
+		Department books = cache.put(new Department(1, "Books"));
+		Department music = cache.put(new Department(2, "Music"));
+
+		List<Department> loaded = cache.load(Arrays.asList(new Department(1, "Books"), new Department(2, "Records")));
+
+		assertSame(books, loaded.get(0));
+		assertNotSame(music, loaded.get(1));
+		assertEquals("Music", music.getName());
+		assertEquals("Records", cache.get(2).getName());
+	}
+
+	@Test
+	void removeAndInvalidate() {
+		cache.load(Arrays.asList(new Department(1, "Books"), new Department(2, "Music")));
+
+		cache.remove(2);
+		assertNull(cache.get(2));
+		assertEquals(1, cache.getAll(() -> null).size());
+
+		cache.invalidate();
+		assertFalse(cache.isLoaded());
+		assertEquals(3, cache.getAll(() -> Arrays.asList(new Department(1, "Books"), new Department(2, "Music"),
+				new Department(3, "Games"))).size());
+	}
+
+	@Test
+	void departmentWithoutIdIsNotCached() {
+		Department unsaved = new Department(null, "Books");
+
+		assertSame(unsaved, cache.put(unsaved));
+		assertTrue(cache.getAll(() -> Arrays.asList()).isEmpty());
+	}
+
+}
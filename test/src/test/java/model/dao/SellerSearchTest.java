@@ -0,0 +1,124 @@
+package model.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import db.DB;
+import db.DbException;
+import db.QueryCancellation;
+import db.TestDatabase;
+import model.entities.Seller;
+
+class SellerSearchTest {
+
+	private static SellerDao dao;
+
+	@BeforeAll
+	static void seed() {
+		TestDatabase.useWithSchema();
+		Connection conn = DB.getConnection();
+		try {
+			TestDatabase.execute(conn, "INSERT INTO department (Id, Name) VALUES (1, 'Books')",
+					"INSERT INTO seller (Name, Email, BirthDate, BaseSalary, DepartmentId) VALUES "
+							+ "('100% Ana', 'ana@example.com', '1990-01-01', 1000, 1), "
+							+ "('100x Bia', 'bia@example.com', '1990-01-01', 1000, 1), "
+							+ "('a_b Caio', 'a_b@example.com', '1990-01-01', 1000, 1), "
+							+ "('axb Duda', 'axb@example.com', '1990-01-01', 1000, 1), "
+							+ "('back\\slash Eva', 'eva@example.com', '1990-01-01', 1000, 1), "
+							+ "('backslash Fabio', 'fabio@example.com', '1990-01-01', 1000, 1)");
+		} finally {
+			DB.closeConnection(conn);
+		}
+		dao = DaoFactory.createSellerDao();
+	}
+
+	@AfterAll
+	static void closeDatabase() {
+		DB.closeConnection();
+	}
+
+	@Test
+	void percentInPrefixIsLiteral() {
+		assertEquals(List.of("100% Ana"), namesStartingWith("100%"));
+	}
+
+	@Test
+	void underscoreInPrefixIsLiteral() {
+		assertEquals(List.of("a_b Caio"), namesStartingWith("a_"));
+	}
+
+	@Test
+	void backslashInPrefixIsLiteral() {
+		assertEquals(List.of("back\\slash Eva"), namesStartingWith("back\\"));
+	}
+
+	@Test
+	void plainPrefixMatchesAll() {
+		assertEquals(List.of("100% Ana", "100x Bia"), namesStartingWith("100"));
+	}
+
+	@Test
+	void emailPrefixIsEscapedToo() {
+		SellerQuery query = new SellerQuery();
+		query.setEmailPrefix("a_");
+		List<Seller> sellers = dao.search(query);
+
+		assertEquals(1, sellers.size());
+		assertEquals("a_b@example.com", sellers.get(0).getEmail());
+	}
+
+	@Test
+	void cancelledSearchNeverRuns() {
+		SellerQuery query = new SellerQuery();
+		query.setNamePrefix("100");
+		QueryCancellation cancellation = new QueryCancellation();
+		query.setCancellation(cancellation);
+		cancellation.cancel();
+
+		DbException error = assertThrows(DbException.class, () -> dao.search(query));
+		assertEquals("Query cancelled", error.getMessage());
+	}
+
+	@Test
+	void finishedSearchIgnoresALateCancel() {
+		SellerQuery query = new SellerQuery();
+		query.setNamePrefix("100");
+		QueryCancellation cancellation = new QueryCancellation();
+		query.setCancellation(cancellation);
+
+		assertEquals(2, dao.search(query).size());
+		cancellation.cancel();
+		assertTrue(cancellation.isCancelled());
+	}
+
+	@Test
+	void birthDateIsAPlainDateThatEqualsOneBuiltFromTheForm() {
+		Seller seller = dao.search(new SellerQuery()).get(0);
+
+		// a Timestamp would compare unequal to the java.util.Date the form builds for the same day
+		assertEquals(java.util.Date.class, seller.getBirthDate().getClass());
+		java.util.Date sameDay = new java.util.Date(seller.getBirthDate().getTime());
+		assertEquals(sameDay, seller.getBirthDate());
+		assertEquals(seller.getBirthDate(), sameDay);
+	}
+
+	private List<String> namesStartingWith(String prefix) {
+		SellerQuery query = new SellerQuery();
+		query.setNamePrefix(prefix);
+		List<String> names = new ArrayList<>();
+		for (Seller seller : dao.search(query)) {
+			names.add(seller.getName());
+		}
+		return names;
+	}
+
+}
@@ -0,0 +1,169 @@
+package model.dao.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import db.DB;
+import db.DbException;
+import db.TestDatabase;
+import db.UnitOfWork;
+
+class JdbcBatchTest {
+
+	private static final String INSERT = "INSERT INTO item (Name) VALUES (?)";
+
+	@BeforeEach
+	void createTable() {
+		DB.setProperties(TestDatabase.properties());
+		Connection conn = DB.getConnection();
+		try {
+			TestDatabase.execute(conn,
+					"CREATE TABLE item (Id INT AUTO_INCREMENT PRIMARY KEY, Name VARCHAR(20) NOT NULL)");
+		} finally {
+			DB.closeConnection(conn);
+		}
+	}
+
+	@AfterEach
+	void closeDatabase() {
+		DB.closeConnection();
+	}
+
+	@Test
+	void insertsEveryChunkAndHandsOutTheGeneratedKeysInOrder() {
+		List<Item> items = items("a", "b", "c", "d", "e", "f", "g");
+
+		insert(items, 3);
+
+		assertEquals(List.of("1=a", "2=b", "3=c", "4=d", "5=e", "6=f", "7=g"), stored());
+		for (int i = 0; i < items.size(); i++) {
+			assertEquals(i + 1, items.get(i).id);
+		}
+		assertEquals(0, DB.getPool().getActiveCount());
+	}
+
+	@Test
+	void failingChunkIsRolledBackAndEarlierChunksStay() {
+		// the fifth row breaks the second chunk of three
+		List<Item> items = items("a", "b", "c", "d", null, "f", "g");
+
+		assertThrows(DbException.class, () -> insert(items, 3));
+
+		assertEquals(List.of("1=a", "2=b", "3=c"), stored());
+		assertEquals(1, items.get(0).id);
+		assertNull(items.get(3).id);
+		assertNull(items.get(6).id);
+		assertAutoCommitRestored();
+	}
+
+	@Test
+	void insideAUnitOfWorkAFailureRollsBackEveryChunk() {
+		List<Item> items = items("a", "b", "c", "d", null, "f", "g");
+
+		assertThrows(DbException.class, () -> UnitOfWork.run(() -> insert(items, 3)));
+
+		assertTrue(stored().isEmpty());
+		// the first chunk's ids were handed out before the unit failed, the caller has to drop them
+		assertEquals(1, items.get(0).id);
+		assertAutoCommitRestored();
+	}
+
+	@Test
+	void updatesWithoutKeys() {
+		insert(items("a", "b", "c"), 2);
+		List<Item> renamed = new ArrayList<>();
+		for (int id = 1; id <= 3; id++) {
+			Item item = new Item("renamed " + id);
+			item.id = id;
+			renamed.add(item);
+		}
+
+		JdbcBatch.execute("UPDATE item SET Name = ? WHERE Id = ?", renamed, 2, (ps, item) -> {
+			ps.setString(1, item.name);
+			ps.setInt(2, item.id);
+		});
+
+		assertEquals(List.of("1=renamed 1", "2=renamed 2", "3=renamed 3"), stored());
+	}
+
+	@Test
+	void emptyBatchNeverBorrowsAConnection() {
+		JdbcBatch.execute(INSERT, Collections.<Item>emptyList(), 3, (ps, item) -> {
+			throw new AssertionError("nothing to bind");
+		});
+
+		assertEquals(0, DB.getPool().getActiveCount());
+		assertEquals(1, DB.getPool().getIdleCount());
+	}
+
+	private static void insert(List<Item> items, int chunkSize) {
+		JdbcBatch.execute(INSERT, items, chunkSize, (ps, item) -> ps.setString(1, item.name),
+				(item, key) -> item.id = key);
+	}
+
+	private static List<Item> items(String... names) {
+		List<Item> items = new ArrayList<>();
+		for (String name : names) {
+			items.add(new Item(name));
+		}
+		return items;
+	}
+
+	private static void assertAutoCommitRestored() {
+		Connection conn = DB.getConnection();
+		try {
+			assertTrue(conn.getAutoCommit());
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeConnection(conn);
+		}
+		assertEquals(0, DB.getPool().getActiveCount());
+	}
+
+	private static List<String> stored() {
+		Connection conn = DB.getConnection();
+		Statement st = null;
+		ResultSet rs = null;
+		try {
+			st = conn.createStatement();
+			rs = st.executeQuery("SELECT Id, Name FROM item ORDER BY Id");
+			List<String> rows = new ArrayList<>();
+			while (rs.next()) {
+				rows.add(rs.getInt(1) + "=" + rs.getString(2));
+			}
+			return rows;
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
+		}
+	}
+
+	private static class Item {
+
+		private Integer id;
+		private final String name;
+
+		Item(String name) {
+			this.name = name;
+		}
+	}
+
+}
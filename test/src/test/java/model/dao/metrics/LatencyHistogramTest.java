@@ -0,0 +1,90 @@
+package model.dao.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+	@Test
+	void smallValuesHaveTheirOwnBucket() {
+		for (long value = 0; value < 8; value++) {
+			assertEquals(value, LatencyHistogram.bucket(value));
+			assertEquals(value, LatencyHistogram.upperBound((int) value));
+		}
+	}
+
+	@Test
+	void eightBucketsPerPowerOfTwo() {
+		assertEquals(8, LatencyHistogram.bucket(8));
+		assertEquals(15, LatencyHistogram.bucket(15));
+		assertEquals(16, LatencyHistogram.bucket(16));
+		assertEquals(16, LatencyHistogram.bucket(17));
+		assertEquals(17, LatencyHistogram.bucket(18));
+		assertEquals(23, LatencyHistogram.bucket(31));
+		assertEquals(24, LatencyHistogram.bucket(32));
+	}
+
+	@Test
+	void bucketsAreContiguousAndOrdered() {
+		for (int bucket = 1; bucket < 400; bucket++) {
+			long lower = LatencyHistogram.upperBound(bucket - 1) + 1;
+			assertEquals(bucket, LatencyHistogram.bucket(lower), "first value of bucket " + bucket);
+			assertEquals(bucket, LatencyHistogram.bucket(LatencyHistogram.upperBound(bucket)),
+					"last value of bucket " + bucket);
+		}
+	}
+
+	@Test
+	void upperBoundIsWithinAnEighthOfTheValue() {
+		long[] values = { 9, 100, 1_000, 123_456, 999_999_999, 1L << 40, (1L << 62) - 1 };
+		for (long value : values) {
+			long upper = LatencyHistogram.upperBound(LatencyHistogram.bucket(value));
+			assertTrue(upper >= value, "upper bound below " + value);
+			assertTrue(upper - value <= value / 8, "upper bound " + upper + " too far from " + value);
+		}
+	}
+
+	@Test
+	void largestValueFitsTheLastBucket() {
+		int bucket = LatencyHistogram.bucket(Long.MAX_VALUE);
+		assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(bucket));
+	}
+
+	@Test
+	void percentilesComeFromTheBuckets() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i * 1_000_000L);
+		}
+
+		assertEquals(100, histogram.getCount());
+		assertEquals(50_500_000.0, histogram.getMeanNanos(), 0.001);
+		assertEquals(100_000_000L, histogram.getMaxNanos());
+
+		long p50 = histogram.getPercentileNanos(50);
+		assertTrue(p50 >= 50_000_000L && p50 <= 50_000_000L * 9 / 8, "p50 " + p50);
+		long p99 = histogram.getPercentileNanos(99);
+		assertTrue(p99 >= 99_000_000L && p99 <= 100_000_000L, "p99 " + p99);
+		// capped at the largest value recorded, not the end of its bucket
+		assertEquals(100_000_000L, histogram.getPercentileNanos(100));
+	}
+
+	@Test
+	void emptyAndResetHistogramsReportZero() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getPercentileNanos(99));
+
+		histogram.record(5_000);
+		histogram.record(-1);
+		assertEquals(2, histogram.getCount());
+		assertEquals(0, histogram.getPercentileNanos(1));
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMaxNanos());
+		assertEquals(0.0, histogram.getMeanNanos());
+	}
+
+}
@@ -0,0 +1,57 @@
+package model.imports;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+class CsvReaderTest {
+
+	@Test
+	void splitsOnTheSeparatorAndKeepsEmptyFields() throws IOException {
+		CsvReader reader = reader("a;b;;d\n;x;\n", ';');
+
+		assertArrayEquals(new String[] { "a", "b", "", "d" }, reader.next());
+		assertArrayEquals(new String[] { "", "x", "" }, reader.next());
+		assertNull(reader.next());
+	}
+
+	@Test
+	void quotedFieldsKeepSeparatorsAndDoubledQuotes() throws IOException {
+		CsvReader reader = reader("\"Silva, Ana\",\"say \"\"hi\"\"\",3\n", ',');
+
+		assertArrayEquals(new String[] { "Silva, Ana", "say \"hi\"", "3" }, reader.next());
+	}
+
+	@Test
+	void quotedFieldSpansLinesAndTheLineNumberFollows() throws IOException {
+		CsvReader reader = reader("h1,h2\n\"first\nsecond\",x\nlast,y\n", ',');
+
+		reader.next();
+		assertArrayEquals(new String[] { "first\nsecond", "x" }, reader.next());
+		assertEquals(3, reader.getLineNumber());
+		assertArrayEquals(new String[] { "last", "y" }, reader.next());
+		assertEquals(4, reader.getLineNumber());
+	}
+
+	@Test
+	void unterminatedQuoteIsReportedWithItsLine() throws IOException {
+		CsvReader reader = reader("a,b\n\"open,c\n", ',');
+
+		reader.next();
+		IOException e = assertThrows(IOException.class, reader::next);
+		assertTrue(e.getMessage().endsWith("line 2"), e.getMessage());
+	}
+
+	private static CsvReader reader(String text, char separator) {
+		return new CsvReader(new BufferedReader(new StringReader(text)), separator);
+	}
+
+}
@@ -0,0 +1,148 @@
+package model.imports;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import db.DB;
+import db.TestDatabase;
+import model.dao.DaoFactory;
+import model.dao.DepartmentCache;
+import model.entities.Seller;
+
+class SellerImporterTest {
+
+	private static final String HEADER = "name,email,birthDate,baseSalary,department";
+
+	@TempDir
+	Path dir;
+
+	private SellerImporter importer;
+
+	@BeforeEach
+	void createDatabase() {
+		TestDatabase.useWithSchema();
+		Connection conn = DB.getConnection();
+		try {
+			// lets the database refuse single rows of a chunk
+			TestDatabase.execute(conn, "INSERT INTO department (Id, Name) VALUES (1, 'Books')",
+					"ALTER TABLE seller ADD CONSTRAINT uk_seller_email UNIQUE (Email)");
+		} finally {
+			DB.closeConnection(conn);
+		}
+		DepartmentCache.getInstance().invalidate();
+		importer = new SellerImporter(DaoFactory.createSellerDao(), DaoFactory.createDepartmentDao());
+		importer.setChunkSize(3);
+	}
+
+	@AfterEach
+	void closeDatabase() {
+		DepartmentCache.getInstance().invalidate();
+		DB.closeConnection();
+	}
+
+	@Test
+	void importsEveryValidRowAcrossChunks() throws IOException {
+		ImportResult result = importLines(
+				"Ana,ana@example.com,01/02/1990,1000,Books",
+				"Bia,bia@example.com,01/02/1990,1100,books",
+				"Caio,caio@example.com,01/02/1990,1200,Books",
+				"Duda,duda@example.com,01/02/1990,1300,Books");
+
+		assertEquals(4, result.getRowsRead());
+		assertEquals(4, result.getRowsImported());
+		assertEquals(0, result.getRowsRejected());
+		assertEquals(List.of("Ana", "Bia", "Caio", "Duda"), storedNames());
+		assertEquals(List.of("line,field,message"), errors());
+	}
+
+	@Test
+	void invalidRowsAreReportedUnderTheirLine() throws IOException {
+		ImportResult result = importLines(
+				"Ana,ana@example.com,01/02/1990,1000,Books",
+				",bia@example.com,1990-02-01,abc,Games",
+				"A name that is far longer than thirty,caio@example.com,01/02/1990,1200,Books");
+
+		assertEquals(1, result.getRowsImported());
+		assertEquals(2, result.getRowsRejected());
+		List<String> errors = errors();
+		assertTrue(errors.contains("3,name,Field is empty"), errors.toString());
+		assertTrue(errors.contains("3,birthDate,Invalid date 1990-02-01"), errors.toString());
+		assertTrue(errors.contains("3,baseSalary,Invalid number abc"), errors.toString());
+		assertTrue(errors.contains("3,department,Unknown department Games"), errors.toString());
+		assertTrue(errors.contains("4,name,Longer than 30 characters"), errors.toString());
+		assertEquals(List.of("Ana"), storedNames());
+	}
+
+	@Test
+	void aRowTheDatabaseRefusesDoesNotTakeItsChunkWithIt() throws IOException {
+		ImportResult result = importLines(
+				"Ana,ana@example.com,01/02/1990,1000,Books",
+				"Bia,ana@example.com,01/02/1990,1100,Books",
+				"Caio,caio@example.com,01/02/1990,1200,Books");
+
+		assertEquals(2, result.getRowsImported());
+		assertEquals(1, result.getRowsRejected());
+		assertEquals(List.of("Ana", "Caio"), storedNames());
+		List<String> errors = errors();
+		assertEquals(2, errors.size(), errors.toString());
+		assertTrue(errors.get(1).startsWith("3,database,"), errors.toString());
+	}
+
+	@Test
+	void missingDepartmentsAreCreatedWhenAsked() throws IOException {
+		importer.setCreateMissingDepartments(true);
+
+		ImportResult result = importLines(
+				"Ana,ana@example.com,01/02/1990,1000,Games",
+				"Bia,bia@example.com,01/02/1990,1100,games");
+
+		assertEquals(2, result.getRowsImported());
+		List<Seller> sellers = DaoFactory.createSellerDao().findAll();
+		assertEquals("Games", sellers.get(0).getDepartment().getName());
+		assertEquals(sellers.get(0).getDepartment().getId(), sellers.get(1).getDepartment().getId());
+		assertEquals(2, DaoFactory.createDepartmentDao().findAll().size());
+	}
+
+	private ImportResult importLines(String... lines) throws IOException {
+		List<String> file = new ArrayList<>();
+		file.add(HEADER);
+		file.addAll(List.of(lines));
+		Files.write(dir.resolve("sellers.csv"), file, StandardCharsets.UTF_8);
+		return importer.importFile(dir.resolve("sellers.csv"), dir.resolve("errors.csv"));
+	}
+
+	// one entry per report record, a database message may span several lines
+	private List<String> errors() throws IOException {
+		List<String> records = new ArrayList<>();
+		try (CsvReader reader = new CsvReader(Files.newBufferedReader(dir.resolve("errors.csv")), ',')) {
+			String[] fields;
+			while ((fields = reader.next()) != null) {
+				records.add(String.join(",", fields));
+			}
+		}
+		return records;
+	}
+
+	private static List<String> storedNames() {
+		List<String> names = new ArrayList<>();
+		for (Seller seller : DaoFactory.createSellerDao().findAll()) {
+			names.add(seller.getName());
+		}
+		names.sort(null);
+		return names;
+	}
+
+}
@@ -0,0 +1,160 @@
+package model.payroll;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import db.DB;
+import db.DbException;
+import db.TestDatabase;
+import model.dao.DaoFactory;
+import model.dao.SellerDao;
+
+class PayrollEngineTest {
+
+	private static final int SELLERS = 10;
+	private static final String PERIOD = "2024-01";
+
+	@BeforeEach
+	void seed() {
+		TestDatabase.useWithSchema();
+		Connection conn = DB.getConnection();
+		try {
+			TestDatabase.execute(conn, "INSERT INTO department (Id, Name) VALUES (1, 'Books')");
+			for (int i = 1; i <= SELLERS; i++) {
+				TestDatabase.execute(conn, "INSERT INTO seller (Name, Email, BirthDate, BaseSalary, DepartmentId) "
+						+ "VALUES ('Seller " + i + "', 's" + i + "@example.com', '1990-01-01', 1000, 1)");
+			}
+		} finally {
+			DB.closeConnection(conn);
+		}
+	}
+
+	@AfterEach
+	void closeDatabase() {
+		DB.closeConnection();
+	}
+
+	@Test
+	void replacesTheProjectionsOfThePeriod() {
+		PayrollResult first = engine(DaoFactory.createSellerDao()).run(raise(10), PERIOD);
+		assertEquals(SELLERS, first.getSellers());
+		assertProjections(1100.0);
+
+		engine(DaoFactory.createSellerDao()).run(raise(20), PERIOD);
+		assertProjections(1200.0);
+	}
+
+	@Test
+	void failedWriteKeepsThePreviousProjections() {
+		engine(DaoFactory.createSellerDao()).run(raise(10), PERIOD);
+
+		PayrollPlan failing = raise(20).addRule((seller, p) -> {
+			if (seller.getId() == 8) {
+				throw new IllegalStateException("no rule for seller 8");
+			}
+		});
+		assertThrows(IllegalStateException.class, () -> engine(DaoFactory.createSellerDao()).run(failing, PERIOD));
+
+		// the delete and the chunks written before the failure were rolled back together
+		assertProjections(1100.0);
+	}
+
+	@Test
+	void failedReadKeepsThePreviousProjections() {
+		engine(DaoFactory.createSellerDao()).run(raise(10), PERIOD);
+
+		SellerDao real = DaoFactory.createSellerDao();
+		SellerDao failing = (SellerDao) Proxy.newProxyInstance(SellerDao.class.getClassLoader(),
+				new Class<?>[] { SellerDao.class }, (proxy, method, args) -> {
+					if (!method.getName().equals("streamAll")) {
+						throw new UnsupportedOperationException(method.getName());
+					}
+					return real.streamAll((Integer) args[0]).peek(seller -> {
+						if (seller.getId() == 8) {
+							throw new DbException("read failed");
+						}
+					});
+				});
+		DbException error = assertThrows(DbException.class, () -> engine(failing).run(raise(20), PERIOD));
+
+		assertEquals("read failed", error.getMessage());
+		assertProjections(1100.0);
+	}
+
+	@Test
+	void interruptedRunLeavesNoWriterBehind() throws InterruptedException {
+		engine(DaoFactory.createSellerDao()).run(raise(10), PERIOD);
+
+		Thread.currentThread().interrupt();
+		try {
+			assertThrows(DbException.class, () -> engine(DaoFactory.createSellerDao()).run(raise(20), PERIOD));
+		} finally {
+			assertTrue(Thread.interrupted());
+		}
+
+		long deadline = System.currentTimeMillis() + 5000;
+		while (writerRunning() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertFalse(writerRunning());
+		assertProjections(1100.0);
+	}
+
+	private static PayrollEngine engine(SellerDao sellerDao) {
+		PayrollEngine engine = new PayrollEngine(sellerDao, DaoFactory.createPayrollDao(), ForkJoinPool.commonPool());
+		// several chunks and a short queue, so the reader and the writer overlap
+		engine.setChunkSize(3);
+		engine.setQueueCapacity(1);
+		engine.setFetchSize(4);
+		return engine;
+	}
+
+	private static PayrollPlan raise(double percent) {
+		return new PayrollPlan().addRule(PayrollRules.raise(percent));
+	}
+
+	private static boolean writerRunning() {
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().equals("payroll-writer") && thread.isAlive()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// every seller has exactly one projection for the period, all with the given gross
+	private static void assertProjections(double gross) {
+		Connection conn = DB.getConnection();
+		Statement st = null;
+		ResultSet rs = null;
+		try {
+			st = conn.createStatement();
+			rs = st.executeQuery("SELECT COUNT(*), MIN(Gross), MAX(Gross) FROM payroll_projection WHERE Period = '"
+					+ PERIOD + "'");
+			rs.next();
+			assertEquals(SELLERS, rs.getInt(1));
+			assertEquals(gross, rs.getDouble(2), 0.001);
+			assertEquals(gross, rs.getDouble(3), 0.001);
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
+		}
+	}
+
+}
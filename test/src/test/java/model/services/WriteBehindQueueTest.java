@@ -0,0 +1,204 @@
+package model.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import db.DB;
+import db.DbException;
+import db.TestDatabase;
+
+class WriteBehindQueueTest {
+
+	// longer than any test, so only the explicit flushes write
+	private static final long NO_SCHEDULED_FLUSH = 3_600_000;
+
+	private final List<List<String>> written = new ArrayList<>();
+	private WriteBehindQueue<Item> queue;
+
+	@AfterEach
+	void closeQueue() {
+		if (queue != null) {
+			queue.close();
+		}
+	}
+
+	@Test
+	void latestUpdateOfAnIdWinsInFirstQueuedOrder() {
+		queue = queue(3, this::record);
+
+		queue.enqueue(new Item(1, "a"));
+		queue.enqueue(new Item(2, "b"));
+		queue.enqueue(new Item(1, "c"));
+		assertEquals(2, queue.size());
+
+		queue.flush();
+
+		assertEquals(List.of(List.of("1=c", "2=b")), written);
+		assertEquals(0, queue.size());
+	}
+
+	@Test
+	void discardDropsTheQueuedUpdate() {
+		queue = queue(3, this::record);
+
+		queue.enqueue(new Item(1, "a"));
+		queue.enqueue(new Item(2, "b"));
+		queue.discard(1);
+		queue.flush();
+
+		assertEquals(List.of(List.of("2=b")), written);
+	}
+
+	@Test
+	void failedBatchIsRetriedWithoutOverwritingNewerUpdates() {
+		queue = queue(3, batch -> {
+			if (written.isEmpty()) {
+				written.add(List.of());
+				// a newer update of the same Id arrives while the failing write runs
+				queue.enqueue(new Item(1, "newer"));
+				throw new DbException("connection lost");
+			}
+			record(batch);
+		});
+
+		queue.enqueue(new Item(1, "older"));
+		queue.enqueue(new Item(2, "b"));
+		queue.flush();
+		assertEquals(2, queue.size());
+
+		queue.flush();
+
+		assertEquals(List.of("1=newer", "2=b"), written.get(1));
+		assertEquals(0, queue.size());
+	}
+
+	@Test
+	void givesUpAfterMaxAttemptsAndNotifiesTheListeners() {
+		queue = queue(3, batch -> {
+			throw new DbException("constraint violated");
+		});
+		List<String> failures = new ArrayList<>();
+		queue.addFailureListener((rows, error) -> {
+			throw new IllegalStateException("a broken listener");
+		});
+		queue.addFailureListener((rows, error) -> failures.add(describe(rows) + " " + error.getMessage()));
+
+		queue.enqueue(new Item(1, "a"));
+		queue.flush();
+		queue.flush();
+		assertTrue(failures.isEmpty());
+		assertEquals(1, queue.size());
+
+		long version = DataVersion.current(Item.class);
+		queue.flush();
+
+		assertEquals(List.of("[1=a] constraint violated"), failures);
+		assertEquals(0, queue.size());
+		// the views show updates the database does not have
+		assertNotEquals(version, DataVersion.current(Item.class));
+	}
+
+	@Test
+	void removedListenerIsNotCalled() {
+		queue = queue(1, batch -> {
+			throw new DbException("constraint violated");
+		});
+		List<String> failures = new ArrayList<>();
+		Runnable registration = queue.addFailureListener((rows, error) -> failures.add(describe(rows)));
+
+		registration.run();
+		queue.enqueue(new Item(1, "a"));
+		queue.flush();
+
+		assertTrue(failures.isEmpty());
+	}
+
+	@Test
+	void onlyAWriteMovesTheVersionOfItsType() {
+		queue = queue(3, this::record);
+		long itemVersion = DataVersion.current(Item.class);
+		long otherVersion = DataVersion.current(Other.class);
+
+		queue.flush();
+		assertEquals(itemVersion, DataVersion.current(Item.class));
+
+		queue.enqueue(new Item(1, "a"));
+		queue.flush();
+		assertNotEquals(itemVersion, DataVersion.current(Item.class));
+		assertEquals(otherVersion, DataVersion.current(Other.class));
+	}
+
+	@Test
+	void closeAllWritesWhatIsStillQueued() {
+		Properties props = TestDatabase.properties();
+		props.setProperty("writeBehind.enabled", "true");
+		props.setProperty("writeBehind.delayMillis", String.valueOf(NO_SCHEDULED_FLUSH));
+		DB.setProperties(props);
+		try {
+			WriteBehindQueue<Other> shared = WriteBehindQueue.forType(Other.class, other -> other.id,
+					batch -> written.add(List.of(batch.size() + " others")), null);
+			assertSame(shared, WriteBehindQueue.forType(Other.class, other -> other.id, batch -> {
+			}, null));
+
+			shared.enqueue(new Other(1));
+			shared.enqueue(new Other(2));
+			WriteBehindQueue.closeAll();
+
+			assertEquals(List.of(List.of("2 others")), written);
+			assertEquals(0, shared.size());
+		} finally {
+			DB.closeConnection();
+		}
+	}
+
+	private WriteBehindQueue<Item> queue(int maxAttempts, Consumer<List<Item>> writer) {
+		return new WriteBehindQueue<>(Item.class, item -> item.id, writer, NO_SCHEDULED_FLUSH, maxAttempts);
+	}
+
+	private void record(List<Item> batch) {
+		List<String> rows = new ArrayList<>();
+		for (Item item : batch) {
+			rows.add(item.id + "=" + item.value);
+		}
+		written.add(rows);
+	}
+
+	private static String describe(List<Item> rows) {
+		List<String> text = new ArrayList<>();
+		for (Item item : rows) {
+			text.add(item.id + "=" + item.value);
+		}
+		return text.toString();
+	}
+
+	private static class Item {
+
+		private final int id;
+		private final String value;
+
+		Item(int id, String value) {
+			this.id = id;
+			this.value = value;
+		}
+	}
+
+	private static class Other {
+
+		private final int id;
+
+		Other(int id) {
+			this.id = id;
+		}
+	}
+
+}
@@ -0,0 +1,8 @@
+-- test migration: a table and its rows
+CREATE TABLE item (
+	Id INT NOT NULL,
+	Name VARCHAR(20) NOT NULL,
+	PRIMARY KEY (Id)
+);
+
+INSERT INTO item (Id, Name) VALUES (1, 'first');
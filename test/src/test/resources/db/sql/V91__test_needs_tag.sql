@@ -0,0 +1,6 @@
+-- test migration: its last step fails until the tag table exists
+ALTER TABLE item ADD COLUMN Tag VARCHAR(20);
+
+INSERT INTO item (Id, Name, Tag) VALUES (2, 'second', 'new');
+
+INSERT INTO tag (Name) VALUES ('new');